@@ -0,0 +1,76 @@
+package benchmarks;
+
+import model.records.dice.Dice;
+import model.records.dice.DiceDeck;
+import model.records.dice.DiceType;
+import model.records.dice.RandomStreams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * Deck compositions shared by the benchmarks, written as benchmark parameters.
+ */
+final class Decks {
+    /**
+     * Six regular dice, the starting deck.
+     */
+    static final String REGULAR = "REGULAR*6";
+
+    /**
+     * A deck with one dice of each skewed distribution.
+     */
+    static final String MIXED = "REGULAR*4,LUCKY,CURSED";
+
+    /**
+     * A deck of special dice only.
+     */
+    static final String SPECIAL = "ROYAL,RISK,LUCKY*2,CURSED*2";
+
+    /**
+     * Seed of every benchmark stream, so runs before and after a change see the same rolls.
+     */
+    static final long SEED = 42L;
+
+    private Decks() {}
+
+    /**
+     * Builds a deck from a composition such as {@code "REGULAR*4,LUCKY,CURSED"}.
+     *
+     * @param composition dice types, each optionally followed by {@code *count}
+     * @return a new deck
+     */
+    static DiceDeck parse(String composition) {
+        List<Dice> dice = new ArrayList<>();
+        for (String part : composition.split(",")) {
+            String[] typeAndCount = part.trim().split("\\*");
+            DiceType type = DiceType.valueOf(typeAndCount[0].toUpperCase(Locale.ROOT));
+            int count = typeAndCount.length > 1 ? Integer.parseInt(typeAndCount[1]) : 1;
+            for (int i = 0; i < count; i++) {
+                dice.add(type.create(1));
+            }
+        }
+        return new DiceDeck(dice);
+    }
+
+    /**
+     * Rolls a deck a number of times and keeps the first dice of every roll.
+     *
+     * @param composition the deck composition
+     * @param size        the dice per selection, at most the deck size
+     * @param count       the number of selections
+     * @return independent rolled selections, reproducible from {@link #SEED}
+     */
+    static List<List<Dice>> selections(String composition, int size, int count) {
+        RandomGenerator random = RandomStreams.create(SEED);
+        List<List<Dice>> selections = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DiceDeck deck = parse(composition);
+            deck.roll(random);
+            selections.add(List.copyOf(deck.getDeck().subList(0, size)));
+        }
+        return selections;
+    }
+}
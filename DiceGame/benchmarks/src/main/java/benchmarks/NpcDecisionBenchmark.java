@@ -0,0 +1,65 @@
+package benchmarks;
+
+import model.Game;
+import model.records.Turn;
+import model.records.dice.DiceDeck;
+import model.records.dice.RandomStreams;
+import model.records.npc.NPC;
+import org.openjdk.jmh.annotations.*;
+import services.StrategyService;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * End-to-end latency of an NPC decision: a turn starts, the whole deck is rolled and the NPC
+ * picks its move, with nothing at stake yet.
+ *
+ * <p>The NPC is built afresh for every iteration, as a new game would build it, and prepared for
+ * its turn before measuring. For the hardest difficulty the strategy table of the deck is solved
+ * then as well, so only the decision is timed; the tables are kept under
+ * {@code target/benchmark-tables}.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Ddice.tables=target/benchmark-tables"})
+public class NpcDecisionBenchmark {
+    @Param({Decks.REGULAR, Decks.MIXED, Decks.SPECIAL})
+    public String deck;
+
+    @Param({"1", "3"})
+    public int difficulty;
+
+    private DiceDeck diceDeck;
+    private RandomGenerator random;
+    private NPC npc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        diceDeck = Decks.parse(deck);
+        random = RandomStreams.create(Decks.SEED);
+    }
+
+    @Setup(Level.Iteration)
+    public void newNpc() {
+        npc = new NPC("Benchmark", diceDeck, 0, 0, difficulty, true, 100, 10, "", "");
+        npc.setRandom(RandomStreams.create(Decks.SEED));
+        npc.startTurn();
+        if (difficulty >= 3) {
+            int room = Game.getInstance().getScoreToWin() - Game.getInstance().getNpcScore();
+            StrategyService.getInstance().solve(diceDeck, room, fraction -> {}).join();
+        }
+    }
+
+    @Benchmark
+    public Turn rollDice() {
+        npc.startTurn(); // Otherwise a scored turn would carry its points into the next roll
+        diceDeck.roll(random);
+        npc.rollDice(new ArrayList<>(diceDeck.getDeck()));
+        return npc.getLastTurn();
+    }
+}
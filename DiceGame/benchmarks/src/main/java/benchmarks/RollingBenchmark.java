@@ -0,0 +1,68 @@
+package benchmarks;
+
+import model.records.dice.BatchRoller;
+import model.records.dice.Dice;
+import model.records.dice.DiceDeck;
+import model.records.dice.RandomStreams;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Rolling single dice and whole decks from a seeded stream.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class RollingBenchmark {
+    private static final int BATCH = 1024;
+
+    @Param({Decks.REGULAR, Decks.MIXED, Decks.SPECIAL})
+    public String deck;
+
+    private DiceDeck diceDeck;
+    private Dice[] dice;
+    private RandomGenerator random;
+    private int next;
+    private BatchRoller roller;
+    private int[] faces;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        diceDeck = Decks.parse(deck);
+        dice = diceDeck.getDeck().toArray(new Dice[0]);
+        random = RandomStreams.create(Decks.SEED);
+        roller = new BatchRoller(diceDeck.getDeck());
+        faces = new int[BATCH * dice.length];
+    }
+
+    /**
+     * Rolls the dice of the deck one at a time, in turn.
+     */
+    @Benchmark
+    public int diceRoll() {
+        Dice d = dice[next++ % dice.length];
+        d.roll(random);
+        return d.getCurrentSide();
+    }
+
+    @Benchmark
+    public DiceDeck deckRoll() {
+        diceDeck.roll(random);
+        return diceDeck;
+    }
+
+    /**
+     * Rolls the deck {@value #BATCH} times with {@link BatchRoller}, reported per deck roll.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int[] batchRoll() {
+        roller.roll(BATCH, faces, random);
+        return faces;
+    }
+}
@@ -0,0 +1,67 @@
+package benchmarks;
+
+import model.records.dice.Dice;
+import model.records.dice.PackedRoll;
+import org.openjdk.jmh.annotations.*;
+import services.ScoreCalculatorService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring of a selection of dice, as done on every click and by every NPC simulation.
+ * Each invocation scores the next of a fixed set of rolled selections, so the branches
+ * taken follow the roll distribution of the deck rather than one repeated roll.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ScoringBenchmark {
+    private static final int SELECTIONS = 1024; // Power of two, for the index mask
+
+    @Param({Decks.REGULAR, Decks.MIXED, Decks.SPECIAL})
+    public String deck;
+
+    @Param({"1", "3", "6"})
+    public int selectionSize;
+
+    private final ScoreCalculatorService scoreService = ScoreCalculatorService.getInstance();
+    private List<List<Dice>> selections;
+    private long[] packed;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        selections = Decks.selections(deck, selectionSize, SELECTIONS);
+        packed = new long[SELECTIONS];
+        for (int i = 0; i < SELECTIONS; i++) {
+            packed[i] = PackedRoll.of(selections.get(i));
+        }
+    }
+
+    @Benchmark
+    public int calculateScore() {
+        return scoreService.calculateScore(selections.get(next++ & (SELECTIONS - 1)));
+    }
+
+    /**
+     * The rules the score table is built from, for comparison.
+     */
+    @Benchmark
+    public int calculateStandardScore() {
+        return scoreService.calculateStandardScore(selections.get(next++ & (SELECTIONS - 1)));
+    }
+
+    @Benchmark
+    public int scorePacked() {
+        return scoreService.scorePacked(packed[next++ & (SELECTIONS - 1)]);
+    }
+
+    @Benchmark
+    public boolean hasAnyScoringCombination() {
+        return scoreService.hasAnyScoringCombination(selections.get(next++ & (SELECTIONS - 1)));
+    }
+}
@@ -16,6 +16,7 @@ import javafx.util.Duration;
 import model.records.dice.*;
 import model.records.npc.HumanPlayer;
 import services.PlayerService;
+import utils.LongObjectMap;
 import view.applications.MainApplication;
 
 import java.util.ArrayList;
@@ -55,7 +56,7 @@ public class DeckScreenController implements Controller {
     private Image backButtonHoverImage;
     private long lastClickTime = 0;
 
-    private Map<Dice, ImageView> diceToImageViewMap = new ConcurrentHashMap<>();
+    private LongObjectMap<ImageView> diceToImageViewMap = new LongObjectMap<>(); // Keyed by dice id, stable across rolls
     private Map<ImageView, Dice> imageViewToDiceMap = new ConcurrentHashMap<>();
 
     private EventHandler<MouseEvent> backButtonClickHandler;
@@ -110,9 +111,7 @@ public class DeckScreenController implements Controller {
         backButton.setOnMouseEntered(null);
         backButton.setOnMouseExited(null);
 
-        for (ImageView diceView : diceToImageViewMap.values()) {
-            diceView.setOnMouseClicked(null);
-        }
+        diceToImageViewMap.forEachValue(diceView -> diceView.setOnMouseClicked(null));
     }
 
     /**
@@ -196,7 +195,7 @@ public class DeckScreenController implements Controller {
         shadow.setSpread(0.1);
         imageView.setEffect(shadow);
 
-        diceToImageViewMap.put(dice, imageView);
+        diceToImageViewMap.put(dice.getId(), imageView);
         imageViewToDiceMap.put(imageView, dice);
 
         setupDiceInteractions(imageView, dice, isMarketDice);
@@ -357,7 +356,7 @@ public class DeckScreenController implements Controller {
             player.setBalance(player.getBalance() - dice.getPrice());
             market.remove(dice);
             playerDeck.add(dice);
-            addReplacementDie(dice.getClass());
+            addReplacementDie(dice.getType());
         } else if(!isMarketDice){
             player.setBalance(player.getBalance() + dice.getPrice());
             playerDeck.remove(dice);
@@ -374,15 +373,10 @@ public class DeckScreenController implements Controller {
     /**
      * Adds a replacement dice to the market after a dice is bought by the player.
      *
-     * @param diceClass The class type of the dice to add to the market.
+     * @param type The type of the dice to add to the market.
      */
-    private void addReplacementDie(Class<? extends Dice> diceClass) {
-        try {
-            Dice newDie = diceClass.getConstructor(int.class).newInstance(1);
-            market.add(newDie);
-        } catch (Exception e) {
-            market.add(new RegularDice(1));
-        }
+    private void addReplacementDie(DiceType type) {
+        market.add(type.isCreatable() ? type.create(1) : new RegularDice(1));
     }
     /**
      * Refreshes the views for the market, player's deck, and balance.
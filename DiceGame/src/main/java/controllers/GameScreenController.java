@@ -26,10 +26,15 @@ import model.observers.GameObserver;
 import model.records.Turn;
 import model.records.dice.Dice;
 import model.records.dice.DiceDeck;
-import model.records.dice.RoyalDice;
 import model.records.npc.NPC;
 import model.records.npc.Player;
+import services.BustProbabilityService;
 import services.ScoreCalculatorService;
+import services.SelectionScore;
+import services.StrategyService;
+import services.StrategyTable;
+import services.TurnDistributionService;
+import utils.LongObjectMap;
 import view.applications.MainApplication;
 
 import java.util.*;
@@ -89,10 +94,10 @@ public class GameScreenController implements Controller, GameObserver {
 
     private List<Dice> npcSelectedDice = new CopyOnWriteArrayList<>();
     private List<ImageView> selectedDiceViews = new CopyOnWriteArrayList<>();
-    private Map<Dice, ImageView> diceToImageViewMap = new ConcurrentHashMap<>();
+    private LongObjectMap<ImageView> diceToImageViewMap = new LongObjectMap<>(); // Keyed by dice id, stable across rolls
     private Map<ImageView, Dice> imageViewToDiceMap = new ConcurrentHashMap<>();
 
-    private List<Dice> listOfNpcPickedDiceForCounting = new ArrayList<>();
+    private SelectionScore npcPickedScore = new SelectionScore(); // Running score of the NPC's dice picked this roll
 
     private int previousScoreNpc = 0;
     private int currentScoreNpc = 0;
@@ -103,6 +108,7 @@ public class GameScreenController implements Controller, GameObserver {
     private Game game = Game.getInstance();
     private List<Dice> displayedDice;
     private List<Dice> pickedDice = new ArrayList<>();
+    private SelectionScore pickedScore = new SelectionScore(); // Running score of pickedDice
     private Boolean needToRoll = false;
     private boolean[][] gridOccupied = new boolean[10][2];
     private NPC npc = game.getNpc();
@@ -112,6 +118,9 @@ public class GameScreenController implements Controller, GameObserver {
     private int currentNPCMoveStep = 0;
 
     ScoreCalculatorService scoreCalculatorService = ScoreCalculatorService.getInstance();
+    BustProbabilityService bustProbabilityService = BustProbabilityService.getInstance();
+    StrategyService strategyService = StrategyService.getInstance();
+    TurnDistributionService turnDistributionService = TurnDistributionService.getInstance();
 
     private int currentPlayerTurnScoreValue = 0;
     private int pickedScoreValue;
@@ -140,10 +149,11 @@ public class GameScreenController implements Controller, GameObserver {
         npcCounter.setText(String.valueOf(game.getNpcScore()));
         playerCounter.setText(String.valueOf(game.getPlayerScore()));
         betOfTheGame.setText(String.valueOf(game.getGameBet()));
+        bustProbabilityService.warmUp(game.getPlayer().getDiceDeck()); // Odds of rolling on are shown on every click
 
         game.setGameObserver(this);
         showWhoseTurn();
-        turnScore.setText(game.getPlayer().getName() + " : " + scoreCalculatorService.calculateScore(pickedDice));
+        turnScore.setText(game.getPlayer().getName() + " : " + pickedScore.getScore());
         messageContainer.toFront();
     }
 
@@ -236,7 +246,7 @@ public class GameScreenController implements Controller, GameObserver {
             KeyEvent event = (KeyEvent) t;
 
             if ((event.getCode() == KeyCode.Q || event.getCode() == KeyCode.E)
-                    && scoreCalculatorService.calculateScore(pickedDice) > 0) {
+                    && pickedScore.getScore() > 0) {
 
                 isProcessingAction = true;
 
@@ -260,7 +270,7 @@ public class GameScreenController implements Controller, GameObserver {
 
     private void busted() {
         previousScoreNpc = 0;
-        listOfNpcPickedDiceForCounting.clear();
+        npcPickedScore.clear();
         showBustedAnimation(() -> {
             Platform.runLater(() -> {
                 resetNPCSelectionState();
@@ -282,11 +292,13 @@ public class GameScreenController implements Controller, GameObserver {
         }
 
         DiceDeck partOfDeck = new DiceDeck(displayedDice);
+        partOfDeck.setRandom(game.getPlayer().getDiceDeck().getRandom());
         partOfDeck.roll();
 
         diceToImageViewMap.clear();
         imageViewToDiceMap.clear();
         pickedDice.clear();
+        pickedScore.clear();
         currentPlayerTurnScoreValue = pickedScoreValue;
         turnScore.setText(game.getPlayer().getName() + ": " + currentPlayerTurnScoreValue);
 
@@ -315,6 +327,8 @@ public class GameScreenController implements Controller, GameObserver {
      * Initiates a dice roll and displays the results.
      */
     private void pRollDice() {
+        // Solved in the background; the hint tells the chance of winning this turn once it is ready
+        strategyService.solve(game.getPlayer().getDiceDeck(), roomLeft(), fraction -> {});
         displayedDice = new ArrayList<>(game.getRolledDice());
         resetNPCSelectionState();
         throwDice(displayedDice);
@@ -338,6 +352,7 @@ public class GameScreenController implements Controller, GameObserver {
         displayedDiceViews.clear();
         selectedDiceViews.clear();
         pickedDice.clear();
+        pickedScore.clear();
 
         // Ensure container layout is updated
         diceContainer.layout();
@@ -386,6 +401,7 @@ public class GameScreenController implements Controller, GameObserver {
         displayedDiceViews.clear();
         selectedDiceViews.clear();
         pickedDice.clear();
+        pickedScore.clear();
 
         // Ensure container layout is updated
         diceContainer.layout();
@@ -427,7 +443,7 @@ public class GameScreenController implements Controller, GameObserver {
         }
 
         // Maintain mappings between dice and their views
-        diceToImageViewMap.put(dice, imageView);
+        diceToImageViewMap.put(dice.getId(), imageView);
         imageViewToDiceMap.put(imageView, dice);
 
         // Set up click handler with animation
@@ -558,14 +574,6 @@ public class GameScreenController implements Controller, GameObserver {
         if (diceContainer.getChildren().contains(diceView)) {
             moveDiceToGrid(dice, diceView);
         } else {
-            if (dice instanceof RoyalDice) {
-                if (((RoyalDice) dice).riskNumberDropped()) {
-                    List<Dice> tempListOfDices = new ArrayList<>(pickedDice);
-                    tempListOfDices.remove(dice);
-                    int temp = scoreCalculatorService.calculateScore(tempListOfDices);
-                    pickedScoreValue = temp;
-                }
-            }
             moveDiceToTable(dice, diceView);
         }
 
@@ -573,15 +581,47 @@ public class GameScreenController implements Controller, GameObserver {
         for (Dice d : pickedDice) {
             System.out.println(d.getCurrentSide() + " ");
         }
-        pickedScoreValue = currentPlayerTurnScoreValue + scoreCalculatorService.calculateScore(pickedDice);
+        // The selection keeps its own score, including the doubling of Royal dice
+        pickedScoreValue = currentPlayerTurnScoreValue + pickedScore.getScore();
 
-        if (dice instanceof RoyalDice && pickedDice.contains(dice)) {
-            if (((RoyalDice) dice).riskNumberDropped()) {
-                pickedScoreValue += scoreCalculatorService.calculateScore(pickedDice) * 2 - scoreCalculatorService.calculateScore(pickedDice);
-            }
+        turnScore.setText(game.getPlayer().getName() + ": " + pickedScoreValue + rollOnHint());
+    }
+
+    /**
+     * Describes the odds of rolling on with the dice the current selection leaves, e.g. " (bust 28%)",
+     * adding the chance of winning the game this turn, e.g. " (bust 28%, win 12%)", once the player's
+     * strategy is solved.
+     *
+     * @return the hint, or an empty string while the selection does not score
+     */
+    private String rollOnHint() {
+        if (pickedScore.getScore() == 0) {
+            return "";
+        }
+        List<Dice> remaining = new ArrayList<>(displayedDice);
+        for (Dice dice : pickedDice) {
+            remaining.remove(dice);
         }
+        if (remaining.isEmpty()) {
+            remaining = game.getRolledDice(); // Hot dice: the whole deck is rolled again
+        }
+        long bust = Math.round(100 * bustProbabilityService.bustProbability(remaining));
 
-        turnScore.setText(game.getPlayer().getName() + ": " + pickedScoreValue);
+        int room = roomLeft();
+        StrategyTable table = strategyService.getSolved(game.getPlayer().getDiceDeck().getDeck(), room);
+        if (table == null || pickedScoreValue >= room || table.compositionOf(remaining) < 0) {
+            return " (bust " + bust + "%)";
+        }
+        long win = Math.round(100 * turnDistributionService.continueTurn(table, remaining, pickedScoreValue)
+                .atLeast(room));
+        return " (bust " + bust + "%, win " + win + "%)";
+    }
+
+    /**
+     * The points the player still needs to win the game.
+     */
+    private int roomLeft() {
+        return Math.max(1, game.getScoreToWin() - game.getPlayerScore());
     }
 
     /**
@@ -637,6 +677,9 @@ public class GameScreenController implements Controller, GameObserver {
 
         sequence.play();
         pickedDice.add(dice);
+        if (pickedScore.add(dice)) {
+            game.showRoyalDiceMessage();
+        }
     }
 
     /**
@@ -654,7 +697,9 @@ public class GameScreenController implements Controller, GameObserver {
 
         selectedDiceGrid.getChildren().remove(diceView);
         selectedDiceViews.remove(diceView);
-        pickedDice.remove(dice);
+        if (pickedDice.remove(dice)) {
+            pickedScore.remove(dice);
+        }
 
         diceContainer.getChildren().add(diceView);
 
@@ -780,7 +825,7 @@ public class GameScreenController implements Controller, GameObserver {
         npcLastTurn = npc.getLastTurn();
 
         resetNPCSelectionState();
-        listOfNpcPickedDiceForCounting.clear();
+        npcPickedScore.clear();
 
         throwDiceNPC(npcLastTurn.getDisplayedDice());
 
@@ -848,7 +893,7 @@ public class GameScreenController implements Controller, GameObserver {
 
         // Create animation steps for each selected dice
         for (Dice dice : npcSelectedDice) {
-            ImageView diceView = diceToImageViewMap.get(dice);
+            ImageView diceView = diceToImageViewMap.get(dice.getId());
             if (diceView != null) {
                 npcAnimationTimeline.getKeyFrames().add(
                         new KeyFrame(
@@ -927,9 +972,9 @@ public class GameScreenController implements Controller, GameObserver {
             gridOccupied[row][col] = true;
             selectedDiceViews.add(diceView);
             npcSelectedDice.add(dice);
-            listOfNpcPickedDiceForCounting.add(dice);
+            npcPickedScore.add(dice);
 
-            currentScoreNpc = scoreCalculatorService.calculateScore(listOfNpcPickedDiceForCounting) + previousScoreNpc;
+            currentScoreNpc = npcPickedScore.getBaseScore() + previousScoreNpc;
             turnScore.setText(game.getNpc().getName() + ": " + currentScoreNpc);
         }
 
@@ -962,7 +1007,7 @@ public class GameScreenController implements Controller, GameObserver {
             @Override
             public void run() {
                 Platform.runLater(() -> {
-                    listOfNpcPickedDiceForCounting.clear();
+                    npcPickedScore.clear();
                     isNpcScored = false;
                     game.setNpcScore(game.getNpcScore() + currentScoreNpc);
                     game.endTurn();
@@ -1001,10 +1046,11 @@ public class GameScreenController implements Controller, GameObserver {
         new Timer().schedule(new TimerTask() {
             public void run() {
                 Platform.runLater(() -> {
-                    listOfNpcPickedDiceForCounting.clear();
+                    npcPickedScore.clear();
                     isNpcScored = true;
                     previousScoreNpc = currentScoreNpc;
                     DiceDeck diceDeck = new DiceDeck(game.getRolledDice());
+                    diceDeck.setRandom(npc.getDiceDeck().getRandom());
                     diceDeck.roll();
                     game.setRolledDice(diceDeck.getDeck());
                     npc.rollDice(game.getRolledDice());
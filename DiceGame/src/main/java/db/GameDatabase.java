@@ -115,9 +115,13 @@ public class GameDatabase {
         try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
              ObjectOutputStream oos = new ObjectOutputStream(bos)) {
 
+            // Decks of registered types are stored as one type id per dice
+            DiceDeck deck = player.getDiceDeck();
+            boolean compact = deck != null && deck.isEncodableAsTypeIds();
             PlayerData data = new PlayerData(
                     player.getName(),
-                    player.getDiceDeck(),
+                    compact ? null : deck,
+                    compact ? deck.toTypeIds() : null,
                     player.getBalance(),
                     player.getCurrentBet()
             );
@@ -143,8 +147,9 @@ public class GameDatabase {
              ObjectInputStream ois = new ObjectInputStream(bis)) {
 
             PlayerData pd = (PlayerData) ois.readObject();
-            return new HumanPlayer(pd.name, pd.diceDeck, pd.balance, pd.currentBet);
-        } catch (IOException | ClassNotFoundException e) {
+            DiceDeck deck = pd.deckTypes != null ? DiceDeck.fromTypeIds(pd.deckTypes) : pd.diceDeck;
+            return new HumanPlayer(pd.name, deck, pd.balance, pd.currentBet);
+        } catch (IOException | ClassNotFoundException | IllegalArgumentException e) {
             return null;
         }
     }
@@ -152,17 +157,21 @@ public class GameDatabase {
     /**
      * A helper class used for serializing the player data.
      * This class stores the necessary fields to recreate a {@link HumanPlayer}.
+     * The deck is kept either as dice type ids or, for older saves and decks with
+     * polyhedral or customized dice, as a serialized {@link DiceDeck}.
      */
     private static class PlayerData implements Serializable {
         private static final long serialVersionUID = 2L; // Incremented version
         final String name;
         final DiceDeck diceDeck;
+        final byte[] deckTypes; // One dice type id per dice, null in older saves
         final int balance;
         final int currentBet;
 
-        PlayerData(String name, DiceDeck diceDeck, int balance, int currentBet) {
+        PlayerData(String name, DiceDeck diceDeck, byte[] deckTypes, int balance, int currentBet) {
             this.name = name;
             this.diceDeck = diceDeck;
+            this.deckTypes = deckTypes;
             this.balance = balance;
             this.currentBet = currentBet;
         }
@@ -0,0 +1,14 @@
+package exceptions;
+
+/**
+ * Exception for invalid scoring rule definitions
+ */
+public class WrongScoringRules extends IllegalArgumentException {
+    public WrongScoringRules(String message) {
+        super(message);
+    }
+
+    public WrongScoringRules(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
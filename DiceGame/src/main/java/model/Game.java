@@ -4,6 +4,7 @@ import db.GameDatabase;
 import exceptions.SomeGameFieldsMissing;
 import model.observers.GameObserver;
 import model.records.dice.Dice;
+import model.records.dice.RandomStreams;
 import model.records.npc.HumanPlayer;
 import model.records.npc.NPC;
 import model.records.npc.Player;
@@ -14,6 +15,7 @@ import view.applications.MainApplication;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.random.RandomGenerator;
 
 /**
  * The main game class that manages the core game logic, player and NPC interactions,
@@ -41,6 +43,9 @@ public class Game implements Serializable {
 
     private int scoreToWin = 5000;
 
+    private long seed;
+    private transient RandomGenerator.SplittableGenerator random;
+
     private GameObserver gameObserver;
 
     /**
@@ -90,13 +95,27 @@ public class Game implements Serializable {
     }
 
     /**
-     * Configures the game with the selected NPC and initial bet.
+     * Configures the game with the selected NPC and initial bet, using a fresh random seed.
      *
      * @param npc The NPC opponent to play against
      * @param gameBet The bet to be placed in the game
      * @throws SomeGameFieldsMissing if setup validation fails
      */
     public void setUpGame(NPC npc, int gameBet) throws SomeGameFieldsMissing {
+        setUpGame(npc, gameBet, System.nanoTime());
+    }
+
+    /**
+     * Configures the game with the selected NPC, initial bet and random seed.
+     * Every roll of the game is drawn from streams split off the seed, so equal seeds
+     * and equal decisions reproduce the game exactly.
+     *
+     * @param npc The NPC opponent to play against
+     * @param gameBet The bet to be placed in the game
+     * @param seed The seed for all random streams of the game
+     * @throws SomeGameFieldsMissing if setup validation fails
+     */
+    public void setUpGame(NPC npc, int gameBet, long seed) throws SomeGameFieldsMissing {
         player = PlayerService.getInstance().getPlayer();
         logger.info("Setting up game with NPC: {}", npc != null ? npc.getClass().getSimpleName() : "null");
         this.npc = npc;
@@ -104,7 +123,18 @@ public class Game implements Serializable {
         this.npcScore = 0;
         this.playerScore = 0;
 
-        logger.info("Game setup complete with bet: {}", gameBet);
+        this.seed = seed;
+        this.random = RandomStreams.create(seed);
+        if (player != null) {
+            player.getDiceDeck().setRandom(random.split());
+        }
+        if (npc != null) {
+            npc.getDiceDeck().setRandom(random.split());
+            npc.setRandom(random.split());
+            npc.startTurn();
+        }
+
+        logger.info("Game setup complete with bet: {} and seed: {}", gameBet, seed);
     }
 
     /**
@@ -134,6 +164,9 @@ public class Game implements Serializable {
 
         int oldTurn = currentTurn;
         currentTurn = (currentTurn == 0) ? 1 : 0;
+        if (currentTurn == 1 && npc != null) {
+            npc.startTurn();
+        }
 
         logger.info("Turn changed from {} to {}",
                 oldTurn == 0 ? "Player" : "NPC",
@@ -211,6 +244,24 @@ public class Game implements Serializable {
         return gameBet;
     }
 
+    /**
+     * Gets the seed the game's random streams were created from.
+     *
+     * @return The seed of the current game
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the game's root random stream.
+     *
+     * @return The seeded random generator, or null if the game is not set up yet
+     */
+    public RandomGenerator.SplittableGenerator getRandom() {
+        return random;
+    }
+
     /**
      * Gets the current score for the turn.
      *
@@ -0,0 +1,229 @@
+package model.records.dice;
+
+import exceptions.WrongProbavilitiesSetUp;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * Constant-time sampler for a discrete dice distribution, built with Vose's alias method.
+ *
+ * <p>The table is built once from a map of sides to probabilities. The probabilities are
+ * quantized to integer weights that sum to exactly 2<sup>32</sup> and spread over a power-of-two
+ * number of columns. A single 32-bit random value then picks a column with its high bits and
+ * decides between the column's own side and its alias with the remaining bits, so a sample costs
+ * one random draw, a shift, a mask and one comparison, without boxing, iteration or allocation.</p>
+ *
+ * <p>Because the table is built in exact integer arithmetic, the sampled distribution is exactly
+ * the quantized one; {@link #probability(int)} reports it, and it differs from the declared
+ * probabilities by less than 2<sup>-32</sup> per side.</p>
+ */
+public final class AliasSampler {
+
+    // At least eight columns, so six- and eight-sided dice share the same layout
+    private static final int MIN_COLUMNS = 8;
+    private static final long TOTAL_WEIGHT = 1L << 32;
+
+    private final int shift; // Number of low bits used to choose between side and alias
+    private final int mask; // Mask selecting those low bits
+    private final int[] threshold; // Below this value the column's own side is taken
+    private final int[] side; // Own side of every column
+    private final int[] alias; // Alias side of every column
+
+    /**
+     * Builds the alias table for the given probabilities.
+     *
+     * @param probabilities a map of side numbers to their probabilities
+     * @throws WrongProbavilitiesSetUp if the map is empty or contains a negative or non-finite probability
+     */
+    public AliasSampler(Map<Integer, Double> probabilities) {
+        this(probabilities, MIN_COLUMNS);
+    }
+
+    /**
+     * Builds the alias table with at least the given number of columns, so tables of
+     * different dice can share one layout in the batched roll kernel.
+     *
+     * @param probabilities a map of side numbers to their probabilities
+     * @param minColumns    the minimum number of columns, a power of two
+     */
+    AliasSampler(Map<Integer, Double> probabilities, int minColumns) {
+        if (probabilities == null || probabilities.isEmpty()) {
+            throw new WrongProbavilitiesSetUp("Probabilities map cannot be null or empty");
+        }
+
+        // Sides are laid out in ascending order so equal maps always give equal tables
+        Map<Integer, Double> sorted = new TreeMap<>(probabilities);
+        int sides = sorted.size();
+        int[] sideValues = new int[sides];
+        double[] weights = new double[sides];
+        double sum = 0.0;
+        int index = 0;
+        for (Map.Entry<Integer, Double> entry : sorted.entrySet()) {
+            double p = entry.getValue();
+            if (!(p >= 0.0) || Double.isInfinite(p)) {
+                throw new WrongProbavilitiesSetUp("Probability of side " + entry.getKey() + " must be a non-negative number");
+            }
+            sideValues[index] = entry.getKey();
+            weights[index] = p;
+            sum += p;
+            index++;
+        }
+        if (sum <= 0.0) {
+            throw new WrongProbavilitiesSetUp("At least one side must have a positive probability");
+        }
+
+        int columns = Math.max(Math.max(MIN_COLUMNS, minColumns), Integer.highestOneBit(Math.max(sides - 1, 1)) << 1);
+        this.shift = 32 - Integer.numberOfTrailingZeros(columns);
+        this.mask = (1 << shift) - 1;
+        this.threshold = new int[columns];
+        this.side = new int[columns];
+        this.alias = new int[columns];
+
+        long[] quantized = quantize(weights, sum);
+        build(sideValues, quantized, columns);
+    }
+
+    /**
+     * Converts the probabilities to integer weights summing to exactly 2<sup>32</sup>,
+     * handing out the rounding remainder by largest fractional part.
+     */
+    private static long[] quantize(double[] weights, double sum) {
+        int n = weights.length;
+        long[] quantized = new long[n];
+        double[] fractions = new double[n];
+        long assigned = 0;
+        for (int i = 0; i < n; i++) {
+            double exact = weights[i] / sum * TOTAL_WEIGHT;
+            quantized[i] = (long) Math.floor(exact);
+            fractions[i] = exact - quantized[i];
+            assigned += quantized[i];
+        }
+
+        long remainder = TOTAL_WEIGHT - assigned;
+        while (remainder != 0) {
+            int best = -1;
+            for (int i = 0; i < n; i++) {
+                if (weights[i] == 0.0) continue; // Impossible sides stay impossible
+                if (remainder < 0 && quantized[i] == 0) continue;
+                if (best == -1 || (remainder > 0 ? fractions[i] > fractions[best] : fractions[i] < fractions[best])) {
+                    best = i;
+                }
+            }
+            long step = remainder > 0 ? 1 : -1;
+            quantized[best] += step;
+            fractions[best] -= step;
+            remainder -= step;
+        }
+        return quantized;
+    }
+
+    /**
+     * Runs Vose's pairing of under- and over-full columns in exact integer arithmetic.
+     */
+    private void build(int[] sideValues, long[] quantized, int columns) {
+        long capacity = 1L << shift;
+        long[] work = new long[columns];
+        System.arraycopy(quantized, 0, work, 0, quantized.length);
+
+        int[] small = new int[columns];
+        int[] large = new int[columns];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < columns; i++) {
+            // Padding columns carry no weight of their own and always defer to their alias
+            side[i] = i < sideValues.length ? sideValues[i] : sideValues[0];
+            if (work[i] < capacity) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            threshold[s] = (int) work[s];
+            alias[s] = side[l];
+            work[l] -= capacity - work[s];
+            if (work[l] < capacity) {
+                small[smallCount++] = l;
+            } else {
+                large[largeCount++] = l;
+            }
+        }
+
+        // With exact weights every column left over is precisely full
+        while (largeCount > 0) {
+            int l = large[--largeCount];
+            threshold[l] = (int) capacity;
+            alias[l] = side[l];
+        }
+        while (smallCount > 0) {
+            int s = small[--smallCount];
+            threshold[s] = (int) capacity;
+            alias[s] = side[s];
+        }
+    }
+
+    /**
+     * Samples a side using one 32-bit value drawn from the given generator.
+     *
+     * @param random the random generator to draw from
+     * @return the sampled side
+     */
+    public int sample(RandomGenerator random) {
+        return sample(random.nextInt());
+    }
+
+    /**
+     * Maps 32 uniformly distributed random bits to a side.
+     *
+     * @param bits 32 random bits
+     * @return the sampled side
+     */
+    public int sample(int bits) {
+        int column = bits >>> shift;
+        return (bits & mask) < threshold[column] ? side[column] : alias[column];
+    }
+
+    /**
+     * Returns the number of columns of the table.
+     *
+     * @return the column count, a power of two
+     */
+    int columns() {
+        return threshold.length;
+    }
+
+    /**
+     * Copies the table into the given arrays starting at {@code offset}, for the batched roll kernel.
+     */
+    void copyTo(int[] thresholds, int[] sides, int[] aliases, int offset) {
+        System.arraycopy(threshold, 0, thresholds, offset, threshold.length);
+        System.arraycopy(side, 0, sides, offset, side.length);
+        System.arraycopy(alias, 0, aliases, offset, alias.length);
+    }
+
+    /**
+     * Returns the exact probability with which {@link #sample(int)} produces the given side
+     * when fed uniformly distributed bits, reconstructed from the table itself.
+     *
+     * @param sideValue the side to look up
+     * @return the probability of the side, or 0 if the side is never sampled
+     */
+    public double probability(int sideValue) {
+        long capacity = 1L << shift;
+        long weight = 0;
+        for (int column = 0; column < threshold.length; column++) {
+            if (side[column] == sideValue) {
+                weight += threshold[column];
+            }
+            if (alias[column] == sideValue) {
+                weight += capacity - threshold[column];
+            }
+        }
+        return (double) weight / TOTAL_WEIGHT;
+    }
+}
@@ -0,0 +1,219 @@
+package model.records.dice;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Rolls a whole deck composition many times in one call, for simulations and balance tuning.
+ *
+ * <p>The alias tables of all dice are merged into flat arrays with a common column count. The
+ * faces of roll {@code r} are written to positions {@code r * deckSize()} to
+ * {@code r * deckSize() + deckSize() - 1} of the caller's buffer, in deck order. Random bits
+ * are drawn in blocks and mapped to sides by a {@link RollKernel}: the Vector API kernel when
+ * the {@code jdk.incubator.vector} module is available, a scalar loop otherwise. Both produce
+ * exactly the distributions of the dice they were built from.</p>
+ *
+ * <p>A roller is immutable and may be shared between threads, each thread passing its own
+ * random stream.</p>
+ */
+public final class BatchRoller {
+
+    // Number of sides sampled per block of random bits, rounded down to whole rolls
+    private static final int BLOCK_SIZE = 4096;
+
+    private static final RollKernel VECTOR_KERNEL = loadVectorKernel();
+    private static final RollKernel SCALAR_KERNEL = new ScalarRollKernel();
+
+    private final Tables tables;
+    private final int deckSize;
+    private final RollKernel kernel;
+
+    /**
+     * Merged alias tables of a deck composition, laid out for the roll kernels.
+     */
+    static final class Tables {
+        final int shift; // Low bits used to choose between side and alias
+        final int mask; // Mask selecting those low bits
+        final int[] threshold; // Thresholds of all dice, one block of columns per dice
+        final int[] side; // Own sides of all dice
+        final int[] alias; // Alias sides of all dice
+        final int[] offsets; // Table offset of the dice at every position of a block
+
+        private Tables(int shift, int mask, int[] threshold, int[] side, int[] alias, int[] offsets) {
+            this.shift = shift;
+            this.mask = mask;
+            this.threshold = threshold;
+            this.side = side;
+            this.alias = alias;
+            this.offsets = offsets;
+        }
+    }
+
+    /**
+     * Creates a roller for the given dice, in deck order.
+     *
+     * @param dice the dice whose distributions to roll
+     */
+    public BatchRoller(List<? extends Dice> dice) {
+        this(distributionsOf(dice));
+    }
+
+    /**
+     * Creates a roller for the given composition of distributions, in deck order.
+     *
+     * @param composition the distribution of every dice of the deck
+     * @throws IllegalArgumentException if the composition is empty
+     */
+    public BatchRoller(DiceDistribution... composition) {
+        this(buildTables(composition), composition.length, VECTOR_KERNEL != null ? VECTOR_KERNEL : SCALAR_KERNEL);
+    }
+
+    private BatchRoller(Tables tables, int deckSize, RollKernel kernel) {
+        this.tables = tables;
+        this.deckSize = deckSize;
+        this.kernel = kernel;
+    }
+
+    private static DiceDistribution[] distributionsOf(List<? extends Dice> dice) {
+        DiceDistribution[] composition = new DiceDistribution[dice.size()];
+        for (int i = 0; i < composition.length; i++) {
+            composition[i] = dice.get(i).getDistribution();
+        }
+        return composition;
+    }
+
+    private static Tables buildTables(DiceDistribution[] composition) {
+        if (composition.length == 0) {
+            throw new IllegalArgumentException("Cannot roll an empty deck");
+        }
+
+        int columns = 0;
+        for (DiceDistribution distribution : composition) {
+            columns = Math.max(columns, distribution.getSampler().columns());
+        }
+
+        int[] threshold = new int[columns * composition.length];
+        int[] side = new int[threshold.length];
+        int[] alias = new int[threshold.length];
+        for (int i = 0; i < composition.length; i++) {
+            AliasSampler sampler = composition[i].getSampler();
+            if (sampler.columns() != columns) {
+                sampler = new AliasSampler(composition[i].asMap(), columns);
+            }
+            sampler.copyTo(threshold, side, alias, i * columns);
+        }
+
+        int blockLength = Math.max(1, BLOCK_SIZE / composition.length) * composition.length;
+        int[] offsets = new int[blockLength];
+        for (int i = 0; i < blockLength; i++) {
+            offsets[i] = (i % composition.length) * columns;
+        }
+
+        int shift = 32 - Integer.numberOfTrailingZeros(columns);
+        return new Tables(shift, (1 << shift) - 1, threshold, side, alias, offsets);
+    }
+
+    private static RollKernel loadVectorKernel() {
+        if (Boolean.getBoolean("dice.kernel.scalar")) {
+            return null;
+        }
+        try {
+            return (RollKernel) Class.forName("model.records.dice.VectorRollKernel")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // jdk.incubator.vector is not in the module graph; the scalar kernel is used instead
+            return null;
+        }
+    }
+
+    /**
+     * Returns a roller over the same composition that always uses the scalar kernel.
+     *
+     * @return a scalar roller
+     */
+    public BatchRoller withScalarKernel() {
+        return new BatchRoller(tables, deckSize, SCALAR_KERNEL);
+    }
+
+    /**
+     * Tells whether this roller uses the Vector API kernel.
+     *
+     * @return true if rolls are vectorized
+     */
+    public boolean isVectorized() {
+        return kernel != SCALAR_KERNEL;
+    }
+
+    /**
+     * Returns the number of dice rolled per roll.
+     *
+     * @return the deck size
+     */
+    public int deckSize() {
+        return deckSize;
+    }
+
+    /**
+     * Rolls the deck {@code rolls} times and writes the sides into {@code faces}.
+     *
+     * @param rolls  the number of deck rolls
+     * @param faces  the buffer receiving {@code rolls * deckSize()} sides
+     * @param random the random generator to draw from
+     * @throws IllegalArgumentException if the buffer is too small
+     */
+    public void roll(int rolls, int[] faces, RandomGenerator random) {
+        long total = checkCapacity(rolls, faces.length);
+        int[] bits = new int[tables.offsets.length];
+        for (long done = 0; done < total; ) {
+            int length = (int) Math.min(bits.length, total - done);
+            fillBits(bits, length, random);
+            kernel.sample(tables, bits, length, faces, (int) done);
+            done += length;
+        }
+    }
+
+    /**
+     * Rolls the deck {@code rolls} times and writes the sides into {@code faces}, one byte per side.
+     *
+     * @param rolls  the number of deck rolls
+     * @param faces  the buffer receiving {@code rolls * deckSize()} sides
+     * @param random the random generator to draw from
+     * @throws IllegalArgumentException if the buffer is too small
+     */
+    public void roll(int rolls, byte[] faces, RandomGenerator random) {
+        long total = checkCapacity(rolls, faces.length);
+        int[] bits = new int[tables.offsets.length];
+        int[] block = new int[bits.length];
+        for (long done = 0; done < total; ) {
+            int length = (int) Math.min(bits.length, total - done);
+            fillBits(bits, length, random);
+            kernel.sample(tables, bits, length, block, 0);
+            int base = (int) done;
+            for (int i = 0; i < length; i++) {
+                faces[base + i] = (byte) block[i];
+            }
+            done += length;
+        }
+    }
+
+    private long checkCapacity(int rolls, int capacity) {
+        long total = (long) rolls * deckSize;
+        if (rolls < 0 || total > capacity) {
+            throw new IllegalArgumentException("Buffer of " + capacity + " sides cannot hold " + rolls + " rolls of " + deckSize + " dice");
+        }
+        return total;
+    }
+
+    private static void fillBits(int[] bits, int length, RandomGenerator random) {
+        int i = 0;
+        for (; i + 1 < length; i += 2) {
+            long value = random.nextLong();
+            bits[i] = (int) value;
+            bits[i + 1] = (int) (value >>> 32);
+        }
+        if (i < length) {
+            bits[i] = random.nextInt();
+        }
+    }
+}
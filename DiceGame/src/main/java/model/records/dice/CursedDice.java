@@ -13,6 +13,8 @@ import java.util.HashMap;
  */
 public class CursedDice extends Dice {
 
+    private static final long serialVersionUID = 6825378070156881248L;
+
     // Custom probabilities that make 2,3,4,6 more likely (25% each)
     // while 1 and 5 have reduced chance (10% each)
     private static final Map<Integer, Double> CURSED_PROBABILITIES;
@@ -27,6 +29,9 @@ public class CursedDice extends Dice {
         CURSED_PROBABILITIES = Map.copyOf(probs);
     }
 
+    // Distribution shared by every CursedDice
+    static final DiceDistribution CURSED_DISTRIBUTION = DiceDistribution.of(CURSED_PROBABILITIES);
+
     /**
      * Constructor for the CursedDice.
      * Sets the dice name, balance, price, and provides a custom probability map for the dice sides.
@@ -35,11 +40,13 @@ public class CursedDice extends Dice {
      */
     public CursedDice(int side) {
         super(side);
-        setName("CursedDice");
-        setBalance(2);
-        setPrice(10);
+        applyType(DiceType.CURSED);
         setInfo("A sinister die that avoids extremes, making 1s and 5s rare but rewarding with a +2 bonus to balance");
-        this.setCustomProbabilities(CURSED_PROBABILITIES);
+    }
+
+    @Override
+    protected DiceDistribution defaultDistribution() {
+        return CURSED_DISTRIBUTION;
     }
 
     /**
@@ -50,7 +57,12 @@ public class CursedDice extends Dice {
      */
     @Override
     public String returnImageName() {
-        return "/img/cursed_dice/cd" + this.getCurrentSide() + ".png";
+        return DiceType.CURSED.imageName(this.getCurrentSide());
+    }
+
+    @Override
+    public DiceType getType() {
+        return DiceType.CURSED;
     }
 
     //img/cursed_dice/cd3.png
@@ -2,8 +2,13 @@ package model.records.dice;
 
 import exceptions.WrongProbavilitiesSetUp;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
 
 /**
  * Abstract base class for creating different types of dice with customizable probabilities.
@@ -13,29 +18,16 @@ public abstract class Dice implements Serializable {
 
    private static final long serialVersionUID = 1L;
 
+   // Source of dice ids, unique within the running game
+   private static final AtomicLong NEXT_ID = new AtomicLong(1);
+
    private String name = "Dice"; // Name of the dice
    private int balance = 0; // Balance associated with the dice
    private String info = ""; // Additional information about the dice
-   private long id = UUID.randomUUID().getLeastSignificantBits(); // Unique ID for the dice
-   private final Random random = new Random(); // Random instance for dice rolling
-
-   // Static map of standard probabilities for 6-sided dice
-   private static final Map<Integer, Double> STANDARD_PROBABILITIES;
-
-   static {
-      // Initializes standard probabilities for a fair 6-sided dice
-      Map<Integer, Double> probs = new HashMap<>();
-      probs.put(1, 1.0 / 6);
-      probs.put(2, 1.0 / 6);
-      probs.put(3, 1.0 / 6);
-      probs.put(4, 1.0 / 6);
-      probs.put(5, 1.0 / 6);
-      probs.put(6, 1.0 / 6);
-      STANDARD_PROBABILITIES = Collections.unmodifiableMap(probs);
-   }
+   private long id = NEXT_ID.getAndIncrement(); // Unique ID for the dice, stable across rolls
 
    private int currentSide; // Current side showing on the dice
-   private Map<Integer, Double> probabilities = new HashMap<>(STANDARD_PROBABILITIES); // Custom probabilities for sides
+   private DiceDistribution distribution = DiceDistribution.STANDARD; // Shared probabilities for sides
    private int price = 0; // Price associated with the dice
    private boolean cheatable; // Whether the dice is cheatable
    private Skin skin; // Visual appearance of the dice (skin)
@@ -51,21 +43,48 @@ public abstract class Dice implements Serializable {
 
    /**
     * Rolls the dice based on the defined probabilities.
+    * Uses the precomputed alias table, so a roll takes constant time and allocates nothing.
     */
    public void roll() {
+      roll(ThreadLocalRandom.current());
+   }
+
+   /**
+    * Rolls the dice drawing from the given random stream, so rolls can be reproduced from a seed.
+    *
+    * @param random the random generator to draw from
+    */
+   public void roll(RandomGenerator random) {
+      currentSide = distribution.sample(random);
+   }
+
+   /**
+    * Rolls the dice by walking the probabilities and summing them until the random value is reached.
+    * Kept as the reference implementation for {@link #roll()}.
+    */
+   public void rollCumulative() {
+      rollCumulative(ThreadLocalRandom.current());
+   }
+
+   /**
+    * Reference cumulative roll drawing from the given random stream.
+    *
+    * @param random the random generator to draw from
+    */
+   public void rollCumulative(RandomGenerator random) {
       double randomValue = random.nextDouble();
       double cumulativeProbability = 0.0;
 
-      for (Map.Entry<Integer, Double> entry : probabilities.entrySet()) {
-         cumulativeProbability += entry.getValue();
+      for (int i = 0; i < distribution.size(); i++) {
+         cumulativeProbability += distribution.probabilityAt(i);
          if (randomValue <= cumulativeProbability) {
-            currentSide = entry.getKey();
+            currentSide = distribution.sideAt(i);
             return;
          }
       }
 
-      // Fallback for rounding errors, assigns the first side in the probabilities map
-      currentSide = probabilities.keySet().iterator().next();
+      // Fallback for rounding errors, assigns the first side of the distribution
+      currentSide = distribution.sideAt(0);
    }
 
    /**
@@ -76,6 +95,27 @@ public abstract class Dice implements Serializable {
     */
    public abstract String returnImageName();
 
+   /**
+    * Returns the registered type of the dice, which carries its stable id and shared descriptor.
+    *
+    * @return the dice type
+    */
+   public abstract DiceType getType();
+
+   /**
+    * Applies the shared name, price, balance and distribution of a registered type.
+    *
+    * @param type the type of the dice
+    */
+   protected void applyType(DiceType type) {
+      this.name = type.getDisplayName();
+      this.price = type.getPrice();
+      this.balance = type.getBalance();
+      if (type.getDistribution() != null) {
+         this.distribution = type.getDistribution();
+      }
+   }
+
    /**
     * Sets custom probabilities for the dice after validating them.
     *
@@ -84,14 +124,33 @@ public abstract class Dice implements Serializable {
     */
    public void setCustomProbabilities(Map<Integer, Double> customProbabilities) {
       validateProbabilities(customProbabilities);
-      this.probabilities = new HashMap<>(customProbabilities);
+      this.distribution = DiceDistribution.of(customProbabilities);
+   }
+
+   /**
+    * Sets a shared, already validated distribution for the dice.
+    *
+    * @param distribution the distribution to roll with
+    */
+   public void setDistribution(DiceDistribution distribution) {
+      this.distribution = Objects.requireNonNull(distribution);
    }
 
    /**
     * Resets the dice probabilities to the standard (fair 6-sided) values.
     */
    public void resetToStandardProbabilities() {
-      this.probabilities = new HashMap<>(STANDARD_PROBABILITIES);
+      this.distribution = DiceDistribution.STANDARD;
+   }
+
+   /**
+    * Returns the distribution a dice of this type starts with.
+    * Used to restore dice serialized before distributions were shared.
+    *
+    * @return the default distribution of the dice type
+    */
+   protected DiceDistribution defaultDistribution() {
+      return DiceDistribution.STANDARD;
    }
 
    /**
@@ -120,7 +179,29 @@ public abstract class Dice implements Serializable {
    }
 
    public Map<Integer, Double> getProbabilities() {
-      return Collections.unmodifiableMap(probabilities);
+      return distribution.asMap();
+   }
+
+   public DiceDistribution getDistribution() {
+      return distribution;
+   }
+
+   /**
+    * Returns the number of sides of the dice, 6 for the standard dice.
+    *
+    * @return the side count
+    */
+   public int getSides() {
+      return distribution.size();
+   }
+
+   /**
+    * Returns the alias table used by {@link #roll()}.
+    *
+    * @return the sampler for the current probabilities
+    */
+   public AliasSampler getSampler() {
+      return distribution.getSampler();
    }
 
    public int getPrice() {
@@ -156,7 +237,7 @@ public abstract class Dice implements Serializable {
    public String toString() {
       return "Dice{" +
               "currentSide=" + currentSide +
-              ", probabilities=" + probabilities +
+              ", probabilities=" + distribution +
               ", valuable=" + price +
               ", cheatable=" + cheatable +
               ", skin=" + skin +
@@ -192,7 +273,8 @@ public abstract class Dice implements Serializable {
    }
 
    /**
-    * Checks if two dice objects are equal by comparing their current side and ID.
+    * Checks if two dice objects are equal by comparing their ID.
+    * The side showing is left out, so a dice stays equal to itself when it is rolled.
     *
     * @param o the other object to compare with
     * @return true if the objects are equal, false otherwise
@@ -202,21 +284,36 @@ public abstract class Dice implements Serializable {
       if (this == o) return true;
       if (o == null || getClass() != o.getClass()) return false;
       Dice dice = (Dice) o;
-      return currentSide == dice.currentSide &&
-              Objects.equals(id, dice.id);
+      return id == dice.id;
    }
 
    /**
-    * Generates a hash code for the dice object based on current side and ID.
+    * Generates a hash code for the dice object based on its ID, stable across rolls.
     *
     * @return a hash code for the dice object
     */
    @Override
    public int hashCode() {
-      return Objects.hash(currentSide, id);
+      return Long.hashCode(id);
    }
 
    public void setSkin(Skin skin) {
       this.skin = skin;
    }
+
+   /**
+    * Restores the shared distribution when reading dice saved with per-instance probability maps,
+    * and gives the dice a fresh ID so it cannot clash with dice created in this run.
+    *
+    * @param in the stream to read from
+    * @throws IOException if reading fails
+    * @throws ClassNotFoundException if a serialized class cannot be found
+    */
+   private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      id = NEXT_ID.getAndIncrement();
+      if (distribution == null) {
+         distribution = defaultDistribution();
+      }
+   }
 }
\ No newline at end of file
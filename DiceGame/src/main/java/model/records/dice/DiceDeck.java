@@ -1,7 +1,11 @@
 package model.records.dice;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents a collection of dice, referred to as a deck,
@@ -20,6 +24,9 @@ public class DiceDeck implements Serializable {
     // List of dice in the deck
     private List<Dice> deck;
 
+    // Random stream used for rolling, or null to use the thread's own generator
+    private transient RandomGenerator random;
+
     /**
      * Constructs a new DiceDeck with the given list of dice.
      *
@@ -70,11 +77,134 @@ public class DiceDeck implements Serializable {
      * the deck, simulating a roll for all dice.</p>
      */
     public void roll() {
+        roll(random != null ? random : ThreadLocalRandom.current());
+    }
+
+    /**
+     * Rolls all the dice in the deck drawing from the given random stream.
+     *
+     * @param random the random generator to draw from
+     */
+    public void roll(RandomGenerator random) {
         for (Dice dice : deck) {
-            dice.roll();
+            dice.roll(random);
         }
     }
 
+    /**
+     * Rolls every dice of the deck and writes the sides into {@code faces}, in deck order.
+     *
+     * <p>Unlike {@link #roll()}, the dice objects are left untouched and nothing is allocated,
+     * so simulations can roll the same deck any number of times.</p>
+     *
+     * @param faces the array receiving one side per dice
+     * @return the number of sides written
+     * @throws IllegalArgumentException if the array is shorter than the deck
+     */
+    public int rollInto(int[] faces) {
+        return rollInto(faces, random != null ? random : ThreadLocalRandom.current());
+    }
+
+    /**
+     * Rolls every dice of the deck from the given stream and writes the sides into {@code faces}.
+     *
+     * @param faces  the array receiving one side per dice
+     * @param random the random generator to draw from
+     * @return the number of sides written
+     * @throws IllegalArgumentException if the array is shorter than the deck
+     */
+    public int rollInto(int[] faces, RandomGenerator random) {
+        int size = deck.size();
+        if (faces.length < size) {
+            throw new IllegalArgumentException("Faces array holds " + faces.length + " sides, deck has " + size + " dice");
+        }
+        for (int i = 0; i < size; i++) {
+            faces[i] = deck.get(i).getDistribution().sample(random);
+        }
+        return size;
+    }
+
+    /**
+     * Rolls every dice of the deck and stores how often each side came up in {@code faceCounts},
+     * indexed by side. The array is cleared first; the dice objects are left untouched.
+     *
+     * @param faceCounts the array receiving the count of each side, longer than the highest side
+     * @return the number of dice rolled
+     */
+    public int rollCounts(int[] faceCounts) {
+        return rollCounts(faceCounts, random != null ? random : ThreadLocalRandom.current());
+    }
+
+    /**
+     * Rolls every dice of the deck from the given stream and stores the count of each side
+     * in {@code faceCounts}, indexed by side.
+     *
+     * @param faceCounts the array receiving the count of each side, longer than the highest side
+     * @param random     the random generator to draw from
+     * @return the number of dice rolled
+     */
+    public int rollCounts(int[] faceCounts, RandomGenerator random) {
+        Arrays.fill(faceCounts, 0);
+        int size = deck.size();
+        for (int i = 0; i < size; i++) {
+            faceCounts[deck.get(i).getDistribution().sample(random)]++;
+        }
+        return size;
+    }
+
+    /**
+     * Encodes the deck as one {@link DiceType} id per dice, in deck order.
+     *
+     * @return the type ids of the dice
+     * @throws IllegalArgumentException if a dice cannot be recreated from its type id alone
+     */
+    public byte[] toTypeIds() {
+        byte[] ids = new byte[deck.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Dice dice = deck.get(i);
+            if (!isEncodable(dice)) {
+                throw new IllegalArgumentException(dice.getName() + " cannot be encoded as a type id");
+            }
+            ids[i] = dice.getType().getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Tells whether every dice of the deck can be encoded by {@link #toTypeIds()}.
+     *
+     * @return true if the deck is fully described by its type ids
+     */
+    public boolean isEncodableAsTypeIds() {
+        for (Dice dice : deck) {
+            if (!isEncodable(dice)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // A dice is fully described by its type unless its distribution was changed
+    private static boolean isEncodable(Dice dice) {
+        DiceType type = dice.getType();
+        return type.isCreatable() && dice.getDistribution() == type.getDistribution();
+    }
+
+    /**
+     * Recreates a deck from the type ids written by {@link #toTypeIds()}. Every dice shows side 1.
+     *
+     * @param ids the type ids of the dice
+     * @return a new deck
+     * @throws IllegalArgumentException if an id is unknown
+     */
+    public static DiceDeck fromTypeIds(byte[] ids) {
+        List<Dice> dice = new ArrayList<>(ids.length);
+        for (byte id : ids) {
+            dice.add(DiceType.byId(id).create(1));
+        }
+        return new DiceDeck(dice);
+    }
+
     /**
      * Returns the list of dice currently in the deck.
      *
@@ -92,4 +222,22 @@ public class DiceDeck implements Serializable {
     public void setDeck(List<Dice> deck) {
         this.deck = deck;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the random stream this deck rolls with.
+     *
+     * @return the random generator, or null if the deck uses the thread's own generator
+     */
+    public RandomGenerator getRandom() {
+        return random;
+    }
+
+    /**
+     * Sets the random stream this deck rolls with, typically split from the game's seeded stream.
+     *
+     * @param random the random generator, or null to use the thread's own generator
+     */
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+    }
+}
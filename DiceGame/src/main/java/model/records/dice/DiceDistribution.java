@@ -0,0 +1,257 @@
+package model.records.dice;
+
+import exceptions.WrongProbavilitiesSetUp;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+/**
+ * Immutable probability distribution over the sides of a dice.
+ *
+ * <p>Distributions are interned: {@link #of(Map)} returns the same instance for equal
+ * probabilities, so every dice of the same kind shares one distribution and one
+ * {@link AliasSampler} instead of carrying its own copy of the probability map.
+ * The probabilities are stored in primitive arrays ordered by side number. Interning holds
+ * distributions weakly, so custom probabilities no dice uses any more are collected.</p>
+ */
+public final class DiceDistribution implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Canonical instances, keyed by themselves; both held weakly
+    private static final Map<DiceDistribution, WeakReference<DiceDistribution>> INTERNED = new WeakHashMap<>();
+
+    /**
+     * Fair 6-sided distribution used by regular dice.
+     */
+    public static final DiceDistribution STANDARD;
+
+    static {
+        Map<Integer, Double> probs = new HashMap<>();
+        for (int side = 1; side <= 6; side++) {
+            probs.put(side, 1.0 / 6);
+        }
+        STANDARD = of(probs);
+    }
+
+    private final int[] sides; // Sides in ascending order
+    private final double[] probabilities; // Probability of each side, same order as sides
+    private final int hash;
+
+    private transient AliasSampler sampler; // Built lazily, shared by every user of this distribution
+    private transient Map<Integer, Double> view; // Read-only map view of the probabilities
+
+    private DiceDistribution(int[] sides, double[] probabilities) {
+        this.sides = sides;
+        this.probabilities = probabilities;
+        this.hash = 31 * Arrays.hashCode(sides) + Arrays.hashCode(probabilities);
+    }
+
+    /**
+     * Returns the shared distribution for the given probabilities.
+     *
+     * @param probabilities a map of side numbers to their probabilities
+     * @return the interned distribution
+     * @throws WrongProbavilitiesSetUp if the map is null or empty
+     */
+    public static DiceDistribution of(Map<Integer, Double> probabilities) {
+        if (probabilities == null || probabilities.isEmpty()) {
+            throw new WrongProbavilitiesSetUp("Probabilities map cannot be null or empty");
+        }
+
+        Map<Integer, Double> sorted = new TreeMap<>(probabilities);
+        int[] sides = new int[sorted.size()];
+        double[] probs = new double[sorted.size()];
+        int index = 0;
+        for (Map.Entry<Integer, Double> entry : sorted.entrySet()) {
+            sides[index] = entry.getKey();
+            probs[index] = entry.getValue();
+            index++;
+        }
+        return intern(new DiceDistribution(sides, probs));
+    }
+
+    /**
+     * Returns the shared fair distribution of a dice with sides 1 to {@code sides}, such as a d4, d8 or d20.
+     *
+     * @param sides the number of sides
+     * @return the interned distribution
+     * @throws WrongProbavilitiesSetUp if {@code sides} is not positive
+     */
+    public static DiceDistribution uniform(int sides) {
+        if (sides < 1) {
+            throw new WrongProbavilitiesSetUp("A dice needs at least one side");
+        }
+        double[] weights = new double[sides];
+        Arrays.fill(weights, 1.0);
+        return weighted(weights);
+    }
+
+    /**
+     * Returns the shared distribution of a dice with sides 1 to {@code weights.length},
+     * side {@code i + 1} coming up in proportion to {@code weights[i]}.
+     * The weights need not sum to 1; they are normalized.
+     *
+     * @param weights the relative weight of every side
+     * @return the interned distribution
+     * @throws WrongProbavilitiesSetUp if a weight is negative or no weight is positive
+     */
+    public static DiceDistribution weighted(double... weights) {
+        if (weights == null || weights.length == 0) {
+            throw new WrongProbavilitiesSetUp("A dice needs at least one side");
+        }
+        double sum = 0.0;
+        for (double weight : weights) {
+            if (!(weight >= 0.0) || Double.isInfinite(weight)) {
+                throw new WrongProbavilitiesSetUp("Side weights must be non-negative numbers");
+            }
+            sum += weight;
+        }
+        if (sum <= 0.0) {
+            throw new WrongProbavilitiesSetUp("At least one side must have a positive weight");
+        }
+
+        int[] sides = new int[weights.length];
+        double[] probs = new double[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            sides[i] = i + 1;
+            probs[i] = weights[i] / sum;
+        }
+        return intern(new DiceDistribution(sides, probs));
+    }
+
+    private static DiceDistribution intern(DiceDistribution distribution) {
+        synchronized (INTERNED) {
+            WeakReference<DiceDistribution> ref = INTERNED.get(distribution);
+            DiceDistribution existing = ref != null ? ref.get() : null;
+            if (existing != null) {
+                return existing;
+            }
+            INTERNED.put(distribution, new WeakReference<>(distribution));
+            return distribution;
+        }
+    }
+
+    /**
+     * Samples a side in constant time.
+     *
+     * @param random the random generator to draw from
+     * @return the sampled side
+     */
+    public int sample(RandomGenerator random) {
+        return getSampler().sample(random);
+    }
+
+    /**
+     * Returns the alias table for this distribution, building it on first use.
+     *
+     * @return the shared sampler
+     */
+    public AliasSampler getSampler() {
+        AliasSampler s = sampler;
+        if (s == null) {
+            s = new AliasSampler(asMap());
+            sampler = s;
+        }
+        return s;
+    }
+
+    /**
+     * Returns the declared probability of a side.
+     *
+     * @param side the side to look up
+     * @return the probability of the side, or 0 if the dice has no such side
+     */
+    public double probability(int side) {
+        int index = Arrays.binarySearch(sides, side);
+        return index >= 0 ? probabilities[index] : 0.0;
+    }
+
+    /**
+     * Returns the number of sides of this distribution.
+     *
+     * @return the side count
+     */
+    public int size() {
+        return sides.length;
+    }
+
+    /**
+     * Returns the highest side of this distribution.
+     *
+     * @return the highest side number
+     */
+    public int maxSide() {
+        return sides[sides.length - 1];
+    }
+
+    /**
+     * Returns the side at the given position, sides being ordered ascending.
+     *
+     * @param index the position of the side
+     * @return the side number
+     */
+    public int sideAt(int index) {
+        return sides[index];
+    }
+
+    /**
+     * Returns the probability at the given position, sides being ordered ascending.
+     *
+     * @param index the position of the side
+     * @return the probability of that side
+     */
+    public double probabilityAt(int index) {
+        return probabilities[index];
+    }
+
+    /**
+     * Returns a read-only map view of the probabilities, ordered by side.
+     *
+     * @return an unmodifiable map of side numbers to probabilities
+     */
+    public Map<Integer, Double> asMap() {
+        Map<Integer, Double> v = view;
+        if (v == null) {
+            Map<Integer, Double> map = new LinkedHashMap<>();
+            for (int i = 0; i < sides.length; i++) {
+                map.put(sides[i], probabilities[i]);
+            }
+            v = Collections.unmodifiableMap(map);
+            view = v;
+        }
+        return v;
+    }
+
+    /**
+     * Keeps deserialized distributions shared.
+     *
+     * @return the interned instance
+     * @throws ObjectStreamException never
+     */
+    private Object readResolve() throws ObjectStreamException {
+        return intern(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DiceDistribution other)) return false;
+        return hash == other.hash
+                && Arrays.equals(sides, other.sides)
+                && Arrays.equals(probabilities, other.probabilities);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+}
@@ -0,0 +1,142 @@
+package model.records.dice;
+
+import model.records.enums.DiceEffect;
+
+import java.util.function.IntFunction;
+
+/**
+ * Registry of dice types, each with a stable numeric id and a descriptor shared by every dice of the type.
+ *
+ * <p>The id never changes once assigned, so it can be stored in save files and network messages
+ * in place of the dice class name: a deck fits in one byte per dice (see {@link DiceDeck#toTypeIds()}).
+ * Code that needs per-type data or behavior looks it up here, or in arrays indexed by id,
+ * instead of checking the class of the dice.</p>
+ */
+public enum DiceType {
+    REGULAR(0, "RegularDice", 0, 0, DiceDistribution.STANDARD, "/img/dice_normal/n", DiceEffect.NONE, RegularDice::new),
+    LUCKY(1, "LuckyDice", 20, -1, LuckyDice.LUCKY_DISTRIBUTION, "/img/lucky_dice/ld", DiceEffect.NONE, LuckyDice::new),
+    CURSED(2, "CursedDice", 10, 2, CursedDice.CURSED_DISTRIBUTION, "/img/cursed_dice/cd", DiceEffect.NONE, CursedDice::new),
+    ROYAL(3, "RoyalDice", 200, -1, DiceDistribution.STANDARD, "/img/royal_dice/rd", DiceEffect.DOUBLE_ON_RISK_NUMBER, RoyalDice::new),
+    RISK(4, "RiskDice", 0, 0, DiceDistribution.STANDARD, "/img/royal_dice/rd", DiceEffect.NONE, RiskDice::new),
+    // Side count and weights are per dice, so a polyhedral dice cannot be recreated from its id alone
+    POLYHEDRAL(5, "PolyhedralDice", 0, 0, null, "/img/dice_d", DiceEffect.NONE, null);
+
+    // Types indexed by id
+    private static final DiceType[] BY_ID;
+
+    static {
+        int maxId = 0;
+        for (DiceType type : values()) {
+            maxId = Math.max(maxId, type.id);
+        }
+        BY_ID = new DiceType[maxId + 1];
+        for (DiceType type : values()) {
+            BY_ID[type.id] = type;
+        }
+    }
+
+    private final byte id; // Stable id used in packed rolls, saves and network messages
+    private final String displayName; // Name shown in the shop and deck screens
+    private final int price; // Price in the shop
+    private final int balance; // Balance the dice adds to a deck
+    private final DiceDistribution distribution; // Default distribution, null if it varies per dice
+    private final String imagePrefix; // Image path up to the side number
+    private final DiceEffect effect; // Special effect in the game
+    private final IntFunction<Dice> factory; // Creates a dice showing a side, null if the id is not enough
+
+    DiceType(int id, String displayName, int price, int balance, DiceDistribution distribution,
+             String imagePrefix, DiceEffect effect, IntFunction<Dice> factory) {
+        this.id = (byte) id;
+        this.displayName = displayName;
+        this.price = price;
+        this.balance = balance;
+        this.distribution = distribution;
+        this.imagePrefix = imagePrefix;
+        this.effect = effect;
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the type registered under the given id.
+     *
+     * @param id the stable type id
+     * @return the dice type
+     * @throws IllegalArgumentException if no type has that id
+     */
+    public static DiceType byId(int id) {
+        if (id < 0 || id >= BY_ID.length || BY_ID[id] == null) {
+            throw new IllegalArgumentException("Unknown dice type id " + id);
+        }
+        return BY_ID[id];
+    }
+
+    /**
+     * Returns the highest id in use, for sizing arrays indexed by type id.
+     *
+     * @return the highest type id
+     */
+    public static int maxId() {
+        return BY_ID.length - 1;
+    }
+
+    /**
+     * Creates a new dice of this type showing the given side.
+     *
+     * @param side the side showing
+     * @return a new dice
+     * @throws IllegalArgumentException if dice of this type cannot be created from the type alone
+     */
+    public Dice create(int side) {
+        if (factory == null) {
+            throw new IllegalArgumentException(displayName + " cannot be created from its type id alone");
+        }
+        return factory.apply(side);
+    }
+
+    /**
+     * Tells whether a dice of this type is fully described by its type id.
+     *
+     * @return true if {@link #create(int)} can recreate the dice
+     */
+    public boolean isCreatable() {
+        return factory != null;
+    }
+
+    /**
+     * Returns the image path of a dice of this type showing the given side.
+     *
+     * @param side the side showing
+     * @return the image path
+     */
+    public String imageName(int side) {
+        return imagePrefix + side + ".png";
+    }
+
+    public byte getId() {
+        return id;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public int getPrice() {
+        return price;
+    }
+
+    public int getBalance() {
+        return balance;
+    }
+
+    public DiceDistribution getDistribution() {
+        return distribution;
+    }
+
+    public String getImagePrefix() {
+        return imagePrefix;
+    }
+
+    public DiceEffect getEffect() {
+        return effect;
+    }
+}
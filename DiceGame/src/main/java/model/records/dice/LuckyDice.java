@@ -17,6 +17,8 @@ import java.util.Map;
  */
 public class LuckyDice extends Dice {
 
+    private static final long serialVersionUID = 3904874289365116962L;
+
     /**
      * Custom probabilities for LuckyDice.
      * 1 and 5 have a 30% chance, while 2, 3, 4, and 6 each have a 10% chance.
@@ -35,6 +37,9 @@ public class LuckyDice extends Dice {
         LUCKY_PROBABILITIES = Map.copyOf(probs);
     }
 
+    // Distribution shared by every LuckyDice
+    static final DiceDistribution LUCKY_DISTRIBUTION = DiceDistribution.of(LUCKY_PROBABILITIES);
+
     /**
      * Constructs a new LuckyDice with the given number of sides.
      *
@@ -42,11 +47,8 @@ public class LuckyDice extends Dice {
      */
     public LuckyDice(int side) {
         super(side);
-        setName("LuckyDice");
-        setPrice(20);
-        setBalance(-1);
+        applyType(DiceType.LUCKY);
         setInfo("Favors fortune, landing on 1 or 5 more often—but at a small cost (-1) for balance.");
-        this.setCustomProbabilities(LUCKY_PROBABILITIES);
     }
 
     /**
@@ -57,6 +59,11 @@ public class LuckyDice extends Dice {
         super.roll(); // Delegates to parent's roll method with custom probabilities
     }
 
+    @Override
+    protected DiceDistribution defaultDistribution() {
+        return LUCKY_DISTRIBUTION;
+    }
+
     /**
      * Returns the image path corresponding to the current side of the LuckyDice.
      *
@@ -64,6 +71,11 @@ public class LuckyDice extends Dice {
      */
     @Override
     public String returnImageName() {
-        return "/img/lucky_dice/ld" + this.getCurrentSide() + ".png";
+        return DiceType.LUCKY.imageName(this.getCurrentSide());
+    }
+
+    @Override
+    public DiceType getType() {
+        return DiceType.LUCKY;
     }
 }
\ No newline at end of file
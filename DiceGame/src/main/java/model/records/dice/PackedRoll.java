@@ -0,0 +1,262 @@
+package model.records.dice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs a roll of up to eight dice into a single {@code long}.
+ *
+ * <p>Every dice occupies a 7-bit slot: 3 bits for the side showing (1 to 7) and a 4-bit
+ * type code above it. Slot {@code i} starts at bit {@code 7 * i}; the number of dice is kept
+ * in bits 56 to 59. A packed roll is a plain value, so it can be passed around, compared
+ * and used as a hash or cache key without allocating anything.</p>
+ *
+ * <p>Slot masks used by {@link #remove(long, int)} and {@link #select(long, int)} have
+ * bit {@code i} set for slot {@code i}.</p>
+ */
+public final class PackedRoll {
+
+    /**
+     * Maximum number of dice a packed roll can hold.
+     */
+    public static final int MAX_DICE = 8;
+
+    /**
+     * Highest side a packed roll can hold.
+     */
+    public static final int MAX_SIDE = 7;
+
+    /**
+     * A roll without dice.
+     */
+    public static final long EMPTY = 0L;
+
+    // Type codes stored in the high nibble of every slot, the ids of the DiceType registry
+    public static final int TYPE_REGULAR = 0;
+    public static final int TYPE_LUCKY = 1;
+    public static final int TYPE_CURSED = 2;
+    public static final int TYPE_ROYAL = 3;
+    public static final int TYPE_RISK = 4;
+    public static final int TYPE_POLYHEDRAL = 5;
+
+    private static final int SLOT_BITS = 7;
+    private static final int FACE_BITS = 3;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+    private static final long FACE_MASK = (1L << FACE_BITS) - 1;
+    private static final int SIZE_SHIFT = SLOT_BITS * MAX_DICE;
+    private static final long SLOTS_MASK = (1L << SIZE_SHIFT) - 1;
+
+    private PackedRoll() {
+    }
+
+    /**
+     * Packs the current sides and types of the given dice.
+     *
+     * @param dice the dice to pack, at most {@link #MAX_DICE}
+     * @return the packed roll
+     * @throws IllegalArgumentException if there are too many dice or a side does not fit
+     */
+    public static long of(List<Dice> dice) {
+        if (dice.size() > MAX_DICE) {
+            throw new IllegalArgumentException("A packed roll holds at most " + MAX_DICE + " dice");
+        }
+        long roll = EMPTY;
+        for (int i = 0; i < dice.size(); i++) {
+            Dice d = dice.get(i);
+            roll = add(roll, typeOf(d), d.getCurrentSide());
+        }
+        return roll;
+    }
+
+    /**
+     * Creates new dice showing the sides of the packed roll.
+     *
+     * @param roll the packed roll
+     * @return a new list of dice, one per slot
+     */
+    public static List<Dice> toDice(long roll) {
+        int size = size(roll);
+        List<Dice> dice = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dice.add(createDice(type(roll, i), face(roll, i)));
+        }
+        return dice;
+    }
+
+    /**
+     * Appends a dice to the packed roll.
+     *
+     * @param roll the packed roll
+     * @param type the type code of the dice
+     * @param face the side showing
+     * @return the packed roll with the dice appended
+     * @throws IllegalArgumentException if the roll is full or the side or type does not fit
+     */
+    public static long add(long roll, int type, int face) {
+        int size = size(roll);
+        if (size == MAX_DICE) {
+            throw new IllegalArgumentException("A packed roll holds at most " + MAX_DICE + " dice");
+        }
+        if (face < 1 || face > MAX_SIDE) {
+            throw new IllegalArgumentException("Side " + face + " cannot be packed");
+        }
+        if (type < 0 || type > 15) {
+            throw new IllegalArgumentException("Type code " + type + " cannot be packed");
+        }
+        long slot = ((long) type << FACE_BITS) | face;
+        return (roll & SLOTS_MASK) | (slot << (SLOT_BITS * size)) | ((long) (size + 1) << SIZE_SHIFT);
+    }
+
+    /**
+     * Returns the number of dice in the packed roll.
+     *
+     * @param roll the packed roll
+     * @return the number of dice
+     */
+    public static int size(long roll) {
+        return (int) (roll >>> SIZE_SHIFT) & 0xF;
+    }
+
+    /**
+     * Returns the side showing in a slot.
+     *
+     * @param roll the packed roll
+     * @param slot the slot index
+     * @return the side
+     */
+    public static int face(long roll, int slot) {
+        return (int) ((roll >>> (SLOT_BITS * slot)) & FACE_MASK);
+    }
+
+    /**
+     * Returns the type code of a slot.
+     *
+     * @param roll the packed roll
+     * @param slot the slot index
+     * @return the type code
+     */
+    public static int type(long roll, int slot) {
+        return (int) ((roll >>> (SLOT_BITS * slot + FACE_BITS)) & 0xF);
+    }
+
+    /**
+     * Counts how often each side shows. The array is cleared first.
+     *
+     * @param roll       the packed roll
+     * @param faceCounts the array receiving the counts, indexed by side, at least {@code MAX_SIDE + 1} long
+     * @return the number of dice
+     */
+    public static int faceCounts(long roll, int[] faceCounts) {
+        for (int i = 0; i <= MAX_SIDE; i++) {
+            faceCounts[i] = 0;
+        }
+        int size = size(roll);
+        for (int i = 0; i < size; i++) {
+            faceCounts[face(roll, i)]++;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the mask of the slots showing the given side.
+     *
+     * @param roll the packed roll
+     * @param face the side to look for
+     * @return a slot mask
+     */
+    public static int slotsShowing(long roll, int face) {
+        int mask = 0;
+        int size = size(roll);
+        for (int i = 0; i < size; i++) {
+            if (face(roll, i) == face) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Removes the masked slots, keeping the order of the remaining dice.
+     *
+     * @param roll the packed roll
+     * @param mask the slots to remove
+     * @return the packed roll without the masked slots
+     */
+    public static long remove(long roll, int mask) {
+        return select(roll, ~mask);
+    }
+
+    /**
+     * Keeps only the masked slots, in their original order.
+     *
+     * @param roll the packed roll
+     * @param mask the slots to keep
+     * @return the packed roll holding only the masked slots
+     */
+    public static long select(long roll, int mask) {
+        int size = size(roll);
+        long result = 0L;
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if ((mask & (1 << i)) != 0) {
+                long slot = (roll >>> (SLOT_BITS * i)) & SLOT_MASK;
+                result |= slot << (SLOT_BITS * kept);
+                kept++;
+            }
+        }
+        return result | ((long) kept << SIZE_SHIFT);
+    }
+
+    /**
+     * Sorts the slots of the packed roll, so that equal multisets of dice give equal values.
+     *
+     * @param roll the packed roll
+     * @return the canonical packed roll
+     */
+    public static long sorted(long roll) {
+        int size = size(roll);
+        long result = roll;
+        // Insertion sort over at most eight slots
+        for (int i = 1; i < size; i++) {
+            long current = slot(result, i);
+            int j = i - 1;
+            while (j >= 0 && slot(result, j) > current) {
+                result = withSlot(result, j + 1, slot(result, j));
+                j--;
+            }
+            result = withSlot(result, j + 1, current);
+        }
+        return result;
+    }
+
+    private static long slot(long roll, int index) {
+        return (roll >>> (SLOT_BITS * index)) & SLOT_MASK;
+    }
+
+    private static long withSlot(long roll, int index, long slot) {
+        int shift = SLOT_BITS * index;
+        return (roll & ~(SLOT_MASK << shift)) | (slot << shift);
+    }
+
+    /**
+     * Returns the type code of a dice.
+     *
+     * @param dice the dice
+     * @return its type code, the id of its {@link DiceType}
+     */
+    public static int typeOf(Dice dice) {
+        return dice.getType().getId();
+    }
+
+    /**
+     * Creates a new dice of the given type showing the given side.
+     *
+     * @param type the type code
+     * @param face the side showing
+     * @return a new dice
+     * @throws IllegalArgumentException for polyhedral dice, whose distribution is not part of the packed roll
+     */
+    public static Dice createDice(int type, int face) {
+        return DiceType.byId(type).create(face);
+    }
+}
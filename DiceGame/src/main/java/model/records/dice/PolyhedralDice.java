@@ -0,0 +1,53 @@
+package model.records.dice;
+
+/**
+ * A dice with an arbitrary number of sides and arbitrary side weights, such as a d4, d8, d10,
+ * d12 or d20, for custom rule variants.
+ *
+ * <p>Sides are numbered from 1. Rolling uses the same constant-time alias sampling as the
+ * six-sided dice, whatever the number of sides.</p>
+ */
+public class PolyhedralDice extends Dice {
+
+    /**
+     * Creates a fair dice with the given number of sides.
+     *
+     * @param side  the side of the dice to initialize with
+     * @param sides the number of sides
+     */
+    public PolyhedralDice(int side, int sides) {
+        this(side, DiceDistribution.uniform(sides));
+    }
+
+    /**
+     * Creates a dice rolling with the given distribution, for example one built
+     * with {@link DiceDistribution#weighted(double...)}.
+     *
+     * @param side         the side of the dice to initialize with
+     * @param distribution the distribution of the sides
+     */
+    public PolyhedralDice(int side, DiceDistribution distribution) {
+        super(side);
+        applyType(DiceType.POLYHEDRAL);
+        setDistribution(distribution);
+        setName("D" + distribution.size());
+        setInfo("A " + distribution.size() + "-sided die for custom rule variants.");
+    }
+
+    /**
+     * Returns the image file name for the current side of the dice.
+     * Images are looked up per side count, e.g. "/img/dice_d20/d20_13.png".
+     *
+     * @return a string representing the image file name for the current dice side
+     */
+    @Override
+    public String returnImageName() {
+        int sides = getSides();
+        return DiceType.POLYHEDRAL.getImagePrefix() + sides + "/d" + sides + "_" + getCurrentSide() + ".png";
+    }
+
+    @Override
+    public DiceType getType() {
+        return DiceType.POLYHEDRAL;
+    }
+}
@@ -0,0 +1,35 @@
+package model.records.dice;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Factory for the seeded random streams used by dice, decks and games.
+ *
+ * <p>All streams come from one splittable algorithm, so a game started from a seed can hand
+ * statistically independent child streams to each deck and to every NPC worker thread while
+ * staying reproducible bit for bit.</p>
+ */
+public final class RandomStreams {
+
+    /**
+     * Name of the splittable algorithm used for every stream.
+     */
+    public static final String ALGORITHM = "L64X128MixRandom";
+
+    private static final RandomGeneratorFactory<RandomGenerator.SplittableGenerator> FACTORY =
+            RandomGeneratorFactory.of(ALGORITHM);
+
+    private RandomStreams() {
+    }
+
+    /**
+     * Creates a new root stream from the given seed.
+     *
+     * @param seed the seed; equal seeds give equal streams
+     * @return a splittable random generator
+     */
+    public static RandomGenerator.SplittableGenerator create(long seed) {
+        return FACTORY.create(seed);
+    }
+}
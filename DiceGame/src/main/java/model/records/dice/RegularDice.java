@@ -6,6 +6,8 @@ package model.records.dice;
  */
 public class RegularDice extends Dice {
 
+    private static final long serialVersionUID = 5416315299752727465L;
+
     /**
      * Constructor for the RegularDice.
      * Sets the name, description, and price of the dice.
@@ -14,9 +16,8 @@ public class RegularDice extends Dice {
      */
     public RegularDice(int side) {
         super(side);
-        setName("RegularDice");
+        applyType(DiceType.REGULAR);
         setInfo("A classic, fair die for traditional gameplay.");
-        setPrice(0);
     }
 
     /**
@@ -37,6 +38,11 @@ public class RegularDice extends Dice {
      */
     @Override
     public String returnImageName() {
-        return "/img/dice_normal/n" + getCurrentSide() + ".png";
+        return DiceType.REGULAR.imageName(getCurrentSide());
+    }
+
+    @Override
+    public DiceType getType() {
+        return DiceType.REGULAR;
     }
 }
\ No newline at end of file
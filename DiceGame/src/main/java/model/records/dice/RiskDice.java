@@ -8,6 +8,9 @@ package model.records.dice;
  * which is compared to the current side of the dice during a roll.</p>
  */
 public class RiskDice extends Dice {
+
+    private static final long serialVersionUID = 2473349093783245669L;
+
     // The risk number that triggers a specific event when rolled
     private int riskNumber;
 
@@ -18,6 +21,7 @@ public class RiskDice extends Dice {
      */
     public RiskDice(int side) {
         super(side);
+        applyType(DiceType.RISK);
     }
 
     /**
@@ -30,7 +34,12 @@ public class RiskDice extends Dice {
      */
     @Override
     public String returnImageName() {
-        return "/img/royal_dice/rd" + this.getCurrentSide() + ".png";
+        return DiceType.RISK.imageName(this.getCurrentSide());
+    }
+
+    @Override
+    public DiceType getType() {
+        return DiceType.RISK;
     }
 
     /**
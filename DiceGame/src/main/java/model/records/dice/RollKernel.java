@@ -0,0 +1,21 @@
+package model.records.dice;
+
+/**
+ * Maps blocks of random bits to dice sides using the merged alias tables of a {@link BatchRoller}.
+ *
+ * <p>Implementations must be bit-for-bit interchangeable: the same bits and tables always
+ * give the same sides.</p>
+ */
+interface RollKernel {
+
+    /**
+     * Samples {@code length} sides.
+     *
+     * @param tables    the merged alias tables of the deck
+     * @param bits      32 random bits per side to sample
+     * @param length    the number of sides to sample, a multiple of the deck size
+     * @param out       the array receiving the sides
+     * @param outOffset the position of the first side in {@code out}
+     */
+    void sample(BatchRoller.Tables tables, int[] bits, int length, int[] out, int outOffset);
+}
@@ -9,6 +9,8 @@ import model.Game;
  */
 public class RoyalDice extends RiskDice {
 
+    private static final long serialVersionUID = 6073633241855280828L;
+
     /**
      * Constructor for creating a RoyalDice instance with a specific side.
      * Initializes the dice with custom values and special risk behavior.
@@ -17,9 +19,7 @@ public class RoyalDice extends RiskDice {
      */
     public RoyalDice(int side) {
         super(side);
-        setName("RoyalDice");
-        setBalance(-1); // Sets the balance penalty when rolled
-        setPrice(Integer.parseInt("200")); // Sets the price of the dice
+        applyType(DiceType.ROYAL); // Name, -1 balance penalty and price of 200
         setInfo("A regal die with a dangerous power—rolling a 1 grants double points, but its unpredictability comes with a -1 balance penalty.\n" +
                 "\n");
         this.setRiskNumber(1); // The risk condition occurs when the dice lands on 1
@@ -47,6 +47,11 @@ public class RoyalDice extends RiskDice {
      */
     @Override
     public String returnImageName() {
-        return "/img/royal_dice/rd" + this.getCurrentSide() + ".png"; // Path to the image for the current side
+        return DiceType.ROYAL.imageName(this.getCurrentSide()); // Path to the image for the current side
+    }
+
+    @Override
+    public DiceType getType() {
+        return DiceType.ROYAL;
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package model.records.dice;
+
+/**
+ * Plain loop implementation of {@link RollKernel}, used wherever the Vector API is unavailable.
+ */
+final class ScalarRollKernel implements RollKernel {
+
+    @Override
+    public void sample(BatchRoller.Tables tables, int[] bits, int length, int[] out, int outOffset) {
+        int shift = tables.shift;
+        int mask = tables.mask;
+        int[] offsets = tables.offsets;
+        int[] threshold = tables.threshold;
+        int[] side = tables.side;
+        int[] alias = tables.alias;
+        for (int i = 0; i < length; i++) {
+            int b = bits[i];
+            int index = offsets[i] + (b >>> shift);
+            out[outOffset + i] = (b & mask) < threshold[index] ? side[index] : alias[index];
+        }
+    }
+}
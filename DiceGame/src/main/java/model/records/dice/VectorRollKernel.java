@@ -0,0 +1,48 @@
+package model.records.dice;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link RollKernel} built on the incubating Vector API.
+ *
+ * <p>Columns are computed and thresholds, sides and aliases gathered for a full vector of
+ * dice at once. The class is only loaded reflectively by {@link BatchRoller}, so the
+ * application still runs when the {@code jdk.incubator.vector} module is not present.</p>
+ */
+final class VectorRollKernel implements RollKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public void sample(BatchRoller.Tables tables, int[] bits, int length, int[] out, int outOffset) {
+        int shift = tables.shift;
+        int mask = tables.mask;
+        int[] offsets = tables.offsets;
+        int[] threshold = tables.threshold;
+        int[] side = tables.side;
+        int[] alias = tables.alias;
+        int[] indexes = new int[SPECIES.length()];
+
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            IntVector b = IntVector.fromArray(SPECIES, bits, i);
+            b.lanewise(VectorOperators.LSHR, shift)
+                    .add(IntVector.fromArray(SPECIES, offsets, i))
+                    .intoArray(indexes, 0);
+            IntVector limit = IntVector.fromArray(SPECIES, threshold, 0, indexes, 0);
+            IntVector own = IntVector.fromArray(SPECIES, side, 0, indexes, 0);
+            IntVector other = IntVector.fromArray(SPECIES, alias, 0, indexes, 0);
+            VectorMask<Integer> takeOwn = b.and(mask).compare(VectorOperators.LT, limit);
+            other.blend(own, takeOwn).intoArray(out, outOffset + i);
+        }
+        for (; i < length; i++) {
+            int value = bits[i];
+            int index = offsets[i] + (value >>> shift);
+            out[outOffset + i] = (value & mask) < threshold[index] ? side[index] : alias[index];
+        }
+    }
+}
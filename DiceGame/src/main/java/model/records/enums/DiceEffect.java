@@ -0,0 +1,9 @@
+package model.records.enums;
+
+/**
+ * Special in-game effect of a dice type, looked up instead of checking the dice class.
+ */
+public enum DiceEffect {
+    NONE,
+    DOUBLE_ON_RISK_NUMBER // Picking the dice while it shows its risk number doubles the selection score
+}
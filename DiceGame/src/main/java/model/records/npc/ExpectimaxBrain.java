@@ -0,0 +1,127 @@
+package model.records.npc;
+
+import model.records.dice.Dice;
+import services.ExpectimaxService;
+import services.StrategyService;
+import services.StrategyTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Deterministic brain playing the move of an exact expectimax search over the next few rolls,
+ * see {@link ExpectimaxService}.
+ *
+ * <p>Stronger players look further ahead. Decks the search cannot enumerate exactly, such as
+ * eight dice of eight different kinds, are handed to a {@link MctsBrain} held to the same time
+ * limit, see {@link #fallbackBudgetFor(int)}.</p>
+ *
+ * <p>The hardest players decide whether to roll on by the solved strategy of their deck once
+ * {@link StrategyService} has it ready, which looks ahead to the end of the turn. The strategy is
+ * solved for the room left before winning, the score to win minus the points banked, since a turn
+ * reaching it is banked; a new room is solved as each turn starts. The search and
+ * the strategy are both set up in {@link #prepare}, so a decision never waits for either: until
+ * the search is ready the fallback decides, and until the strategy is, the search alone.</p>
+ */
+public class ExpectimaxBrain implements NpcBrain {
+    private static final long TIME_LIMIT_MILLIS = 8;
+
+    private final ExpectimaxService expectimaxService = ExpectimaxService.getInstance();
+    private final StrategyService strategyService = StrategyService.getInstance();
+    private final int depth; // 0 to look ahead by difficulty
+    private final NpcBrain[] fallbacks = new NpcBrain[3]; // By difficulty
+
+    /**
+     * Creates a brain looking ahead as far as the player's difficulty allows, see {@link #depthFor(int)}.
+     */
+    public ExpectimaxBrain() {
+        this(0);
+    }
+
+    /**
+     * Creates a brain looking a fixed number of rolls ahead.
+     *
+     * @param depth the rolls to look ahead, 1 to {@link ExpectimaxService#MAX_DEPTH}, or 0 to look ahead by difficulty
+     * @throws IllegalArgumentException if the depth is out of range
+     */
+    public ExpectimaxBrain(int depth) {
+        if (depth < 0 || depth > ExpectimaxService.MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 0 and " + ExpectimaxService.MAX_DEPTH
+                    + ", was " + depth);
+        }
+        this.depth = depth;
+        for (int difficulty = 1; difficulty <= fallbacks.length; difficulty++) {
+            fallbacks[difficulty - 1] = new MctsBrain(fallbackBudgetFor(difficulty));
+        }
+    }
+
+    /**
+     * Returns the rolls a difficulty looks ahead.
+     *
+     * @param difficulty the difficulty, 1 to 3
+     * @return the search depth
+     */
+    public static int depthFor(int difficulty) {
+        return switch (Math.max(1, Math.min(difficulty, 3))) {
+            case 1 -> 1;
+            case 2 -> 2;
+            default -> 4;
+        };
+    }
+
+    /**
+     * Returns the budget of a decision handed to the fallback search: stronger players run more
+     * iterations, but never for longer than the search itself may take.
+     *
+     * @param difficulty the difficulty, 1 to 3
+     * @return the budget of one fallback decision
+     */
+    public static MctsBrain.Budget fallbackBudgetFor(int difficulty) {
+        return new MctsBrain.Budget(TIME_LIMIT_MILLIS, MctsBrain.budgetFor(difficulty).iterations());
+    }
+
+    @Override
+    public void prepare(List<Dice> deck, int bankedScore, int scoreToWin, int difficulty) {
+        expectimaxService.prepare(deck);
+        if (difficulty >= 3) {
+            strategyService.solve(deck, roomOf(bankedScore, scoreToWin), fraction -> {}); // In the background
+        }
+    }
+
+    @Override
+    public Move decide(Situation situation, RandomGenerator.SplittableGenerator random) {
+        ExpectimaxService.Choice choice = expectimaxService.bestMove(situation.deck(), situation.roll(),
+                situation.turnScore(), situation.bankedScore(), situation.scoreToWin(),
+                depth > 0 ? depth : depthFor(situation.difficulty()), TIME_LIMIT_MILLIS, TimeUnit.MILLISECONDS);
+        if (choice == null) {
+            return fallbacks[Math.max(1, Math.min(situation.difficulty(), 3)) - 1].decide(situation, random);
+        }
+        if (choice.keepScore() == 0) {
+            return Move.BUST;
+        }
+        return new Move(choice.keepMask(), choice.keepScore(), rollOn(situation, choice));
+    }
+
+    private boolean rollOn(Situation situation, ExpectimaxService.Choice choice) {
+        int room = roomOf(situation.bankedScore(), situation.scoreToWin());
+        StrategyTable strategy = situation.difficulty() >= 3 ? strategyService.getSolved(situation.deck(), room) : null;
+        if (strategy == null || strategy.getGoal() != room) {
+            return choice.rollOn();
+        }
+        List<Dice> remaining = new ArrayList<>(situation.roll().size());
+        for (int i = 0; i < situation.roll().size(); i++) {
+            if ((choice.keepMask() & (1 << i)) == 0) {
+                remaining.add(situation.roll().get(i));
+            }
+        }
+        return strategy.shouldRoll(remaining, situation.turnScore() + choice.keepScore(), situation.bankedScore(),
+                situation.scoreToWin());
+    }
+
+    // The turn points that win the game, the goal the strategy is solved for
+    private static int roomOf(int bankedScore, int scoreToWin) {
+        return Math.max(1, scoreToWin - bankedScore);
+    }
+}
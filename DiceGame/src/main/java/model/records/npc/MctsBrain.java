@@ -0,0 +1,456 @@
+package model.records.npc;
+
+import model.records.dice.Dice;
+import model.records.dice.DiceDistribution;
+import services.KeepTable;
+import services.ScoreCalculatorService;
+import services.SearchExecutor;
+import utils.LongObjectMap;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Anytime Monte Carlo tree search over the rest of a turn.
+ *
+ * <p>The root is the roll at hand; its moves are every legal keep followed by banking or by
+ * rolling on. Rolling on leads to a chance node whose outcomes are sampled from each dice's own
+ * distribution, so Lucky, Cursed and other dice of the deck are simulated as they really roll.
+ * Every iteration walks down the tree by UCB1, adds one new roll outcome and plays the turn out
+ * from there with a fast default policy: keep the best scoring dice and roll on while few points
+ * are at stake. The value of a move is the mean number of points the turn banks.</p>
+ *
+ * <p>The search runs with root parallelism: every worker of the {@link SearchExecutor} grows a
+ * tree of its own from its own random stream, and the visit counts of the root moves are summed
+ * at the end. Iterations stop when the {@link Budget} runs out, either in time or in count, and
+ * the most visited move so far is played, so a decision always costs a predictable amount of
+ * CPU. With an iteration budget alone the result is reproducible from the random stream.</p>
+ */
+public class MctsBrain implements NpcBrain {
+
+    /**
+     * What one decision may cost.
+     *
+     * @param millis     the wall-clock time, shared by all workers
+     * @param iterations the number of iterations, spread over the workers
+     */
+    public record Budget(long millis, int iterations) {
+    }
+
+    private static final double EXPLORATION = 0.7;
+    private static final int MAX_TREE_DEPTH = 64;
+    private static final long TIMEOUT_SLACK_MILLIS = 250;
+    private static final int FACE_BITS = 6;
+
+    private final ScoreCalculatorService scoreService = ScoreCalculatorService.getInstance();
+    private final SearchExecutor searchExecutor;
+    private final Budget budget; // Null to budget by difficulty
+
+    /**
+     * Creates a brain that spends the budget of the player's difficulty, see {@link #budgetFor(int)}.
+     */
+    public MctsBrain() {
+        this(null);
+    }
+
+    /**
+     * Creates a brain that spends a fixed budget on every decision.
+     *
+     * @param budget the budget, or null to budget by difficulty
+     */
+    public MctsBrain(Budget budget) {
+        this(budget, SearchExecutor.getInstance());
+    }
+
+    /**
+     * Creates a brain searching on the given executor.
+     *
+     * @param budget         the budget, or null to budget by difficulty
+     * @param searchExecutor the pool to grow the trees on
+     */
+    public MctsBrain(Budget budget, SearchExecutor searchExecutor) {
+        this.budget = budget;
+        this.searchExecutor = searchExecutor;
+    }
+
+    /**
+     * Returns the budget of a difficulty: stronger players think longer.
+     *
+     * @param difficulty the difficulty, 1 to 3
+     * @return the budget of one decision
+     */
+    public static Budget budgetFor(int difficulty) {
+        return switch (Math.max(1, Math.min(difficulty, 3))) {
+            case 1 -> new Budget(15, 2_000);
+            case 2 -> new Budget(40, 10_000);
+            default -> new Budget(120, 40_000);
+        };
+    }
+
+    @Override
+    public Move decide(Situation situation, RandomGenerator.SplittableGenerator random) {
+        Universe universe = Universe.of(situation);
+        KeepTable keeps = KeepTable.of(scoreService.getScoreTable());
+        if (universe == null) {
+            return greedyMove(situation, keeps); // Too many dice to search
+        }
+
+        Budget spend = budget != null ? budget : budgetFor(situation.difficulty());
+        int trees = Math.max(1, Math.min(searchExecutor.getParallelism(), spend.iterations()));
+        RandomGenerator.SplittableGenerator[] streams = new RandomGenerator.SplittableGenerator[trees];
+        for (int t = 0; t < trees; t++) {
+            streams[t] = random.split();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(spend.millis());
+
+        List<Node> roots = searchExecutor.evaluate(trees, t -> {
+            Tree tree = new Tree(universe, keeps, situation, streams[t]);
+            int iterations = spend.iterations() / trees + (t < spend.iterations() % trees ? 1 : 0);
+            tree.search(iterations, deadline);
+            return tree.root;
+        }, spend.millis() + TIMEOUT_SLACK_MILLIS, TimeUnit.MILLISECONDS);
+
+        // Sum the root statistics of all trees; the most visited move is the most trusted
+        Node first = null;
+        long[] visits = null;
+        double[] totals = null;
+        for (Node root : roots) {
+            if (root == null) continue;
+            if (first == null) {
+                first = root;
+                visits = new long[root.visits.length];
+                totals = new double[root.visits.length];
+            }
+            for (int a = 0; a < visits.length; a++) {
+                visits[a] += root.visits[a];
+                totals[a] += root.totals[a];
+            }
+        }
+        if (first == null) {
+            return greedyMove(situation, keeps);
+        }
+        if (first.count == 0) {
+            return Move.BUST;
+        }
+
+        int best = -1;
+        for (int a = 0; a < visits.length; a++) {
+            if (visits[a] == 0) continue;
+            if (best < 0 || visits[a] > visits[best]
+                    || (visits[a] == visits[best] && totals[a] / visits[a] > totals[best] / visits[best])) {
+                best = a;
+            }
+        }
+        if (best < 0) {
+            return greedyMove(situation, keeps);
+        }
+        int keep = best >> 1;
+        return new Move(universe.toRollMask(first.keepMasks[keep]), first.keepScores[keep], (best & 1) == 1);
+    }
+
+    /**
+     * The move of the default policy: the best scoring keep, rolling on while little is at stake.
+     */
+    static Move greedyMove(Situation situation, KeepTable keeps) {
+        List<Dice> roll = situation.roll();
+        if (roll.size() > KeepTable.MAX_DICE) {
+            return Move.BUST;
+        }
+        int[] faces = new int[roll.size()];
+        for (int i = 0; i < faces.length; i++) {
+            faces[i] = roll.get(i).getCurrentSide();
+        }
+        int[] masks = new int[KeepTable.MAX_KEEPS];
+        int[] scores = new int[KeepTable.MAX_KEEPS];
+        if (keeps.legalKeeps(faces, faces.length, masks, scores) == 0) {
+            return Move.BUST;
+        }
+        int points = situation.turnScore() + scores[0];
+        int left = roll.size() - Integer.bitCount(masks[0]);
+        boolean rollOn = situation.bankedScore() + points < situation.scoreToWin()
+                && keepRolling(left == 0 ? situation.deck().size() : left, points);
+        return new Move(masks[0], scores[0], rollOn);
+    }
+
+    /**
+     * Default policy: roll on while the dice left are many or the points at stake few.
+     */
+    private static boolean keepRolling(int dice, int points) {
+        return points < 300 || dice >= 4 || (dice == 3 && points < 500);
+    }
+
+    /**
+     * The dice a search deals with: the deck, then any rolled dice not in it. Sets of them are
+     * bitmasks over these indices.
+     */
+    private static final class Universe {
+        final DiceDistribution[] distributions;
+        final int[] kinds; // Lowest universe index with the same distribution, by universe index
+        final int fullDeck; // Dice rolled after hot dice
+        final int rootHand; // Dice of the roll at hand
+        final int[] rollIndex; // Universe index of each dice of the roll
+        final int[] rootFaces; // Side showing on each dice of the roll, by universe index
+
+        private Universe(DiceDistribution[] distributions, int[] kinds, int fullDeck, int rootHand,
+                         int[] rollIndex, int[] rootFaces) {
+            this.distributions = distributions;
+            this.kinds = kinds;
+            this.fullDeck = fullDeck;
+            this.rootHand = rootHand;
+            this.rollIndex = rollIndex;
+            this.rootFaces = rootFaces;
+        }
+
+        static Universe of(Situation situation) {
+            List<Dice> deck = situation.deck();
+            List<Dice> roll = situation.roll();
+            Dice[] dice = new Dice[KeepTable.MAX_DICE];
+            int size = 0;
+            for (Dice d : deck) {
+                if (size == KeepTable.MAX_DICE) return null;
+                dice[size++] = d;
+            }
+            int fullDeck = (1 << size) - 1;
+
+            int[] rollIndex = new int[roll.size()];
+            int[] rootFaces = new int[KeepTable.MAX_DICE];
+            int rootHand = 0;
+            for (int i = 0; i < roll.size(); i++) {
+                Dice d = roll.get(i);
+                int index = -1;
+                for (int j = 0; j < size; j++) {
+                    if (dice[j].equals(d) && (rootHand & (1 << j)) == 0) {
+                        index = j;
+                        break;
+                    }
+                }
+                if (index < 0) {
+                    if (size == KeepTable.MAX_DICE) return null;
+                    index = size;
+                    dice[size++] = d;
+                }
+                rollIndex[i] = index;
+                rootHand |= 1 << index;
+                rootFaces[index] = d.getCurrentSide();
+                if (d.getCurrentSide() >= 1 << FACE_BITS) return null;
+            }
+
+            DiceDistribution[] distributions = new DiceDistribution[size];
+            int[] kinds = new int[size];
+            for (int j = 0; j < size; j++) {
+                distributions[j] = dice[j].getDistribution();
+                if (distributions[j].maxSide() >= 1 << FACE_BITS) return null;
+                kinds[j] = j;
+                for (int k = 0; k < j; k++) {
+                    if (distributions[k].equals(distributions[j])) {
+                        kinds[j] = k;
+                        break;
+                    }
+                }
+            }
+            return new Universe(distributions, kinds, fullDeck == 0 ? rootHand : fullDeck, rootHand, rollIndex,
+                    rootFaces);
+        }
+
+        int toRollMask(int universeMask) {
+            int mask = 0;
+            for (int i = 0; i < rollIndex.length; i++) {
+                if ((universeMask & (1 << rollIndex[i])) != 0) {
+                    mask |= 1 << i;
+                }
+            }
+            return mask;
+        }
+    }
+
+    /**
+     * A roll waiting for a decision. Move {@code a} keeps keep {@code a >> 1} and rolls on if {@code a} is odd.
+     */
+    private static final class Node {
+        final int hand; // Dice that were rolled
+        final int points; // Turn points before the roll
+        final int count; // Legal keeps
+        final int[] keepMasks;
+        final int[] keepScores;
+        final int[] visits;
+        final double[] totals;
+        final LongObjectMap<Node>[] outcomes; // Per keep, the rolls that followed rolling on
+        int total;
+
+        @SuppressWarnings("unchecked")
+        Node(int hand, int points, int count, int[] keepMasks, int[] keepScores) {
+            this.hand = hand;
+            this.points = points;
+            this.count = count;
+            this.keepMasks = keepMasks;
+            this.keepScores = keepScores;
+            this.visits = new int[2 * count];
+            this.totals = new double[2 * count];
+            this.outcomes = new LongObjectMap[count];
+        }
+    }
+
+    /**
+     * One search tree, grown by a single worker.
+     */
+    private static final class Tree {
+        final Universe universe;
+        final KeepTable keeps;
+        final RandomGenerator random;
+        final int bankedScore;
+        final int scoreToWin;
+        final double scale; // Rewards are compared in units of this many points
+        final Node root;
+
+        // Scratch space, reused by every iteration
+        private final int[] faces = new int[KeepTable.MAX_DICE];
+        private final int[] handFaces = new int[KeepTable.MAX_DICE];
+        private final int[] handKinds = new int[KeepTable.MAX_DICE];
+        private final int[] handIndex = new int[KeepTable.MAX_DICE];
+        private final int[] masks = new int[KeepTable.MAX_KEEPS];
+        private final int[] scores = new int[KeepTable.MAX_KEEPS];
+
+        Tree(Universe universe, KeepTable keeps, Situation situation, RandomGenerator random) {
+            this.universe = universe;
+            this.keeps = keeps;
+            this.random = random;
+            this.bankedScore = situation.bankedScore();
+            this.scoreToWin = situation.scoreToWin();
+            System.arraycopy(universe.rootFaces, 0, faces, 0, universe.rootFaces.length);
+            this.root = newNode(universe.rootHand, situation.turnScore());
+            int bestKeep = root.count > 0 ? root.keepScores[0] : 0;
+            this.scale = Math.max(500.0, situation.turnScore() + bestKeep);
+        }
+
+        void search(int iterations, long deadline) {
+            if (root.count == 0) return;
+            for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+                iterate(root, 0);
+            }
+        }
+
+        private double iterate(Node node, int depth) {
+            if (node.count == 0) return 0.0; // Bust
+            int move = select(node);
+            int keep = move >> 1;
+            int points = node.points + node.keepScores[keep];
+
+            double reward;
+            if ((move & 1) == 0) {
+                reward = points;
+            } else {
+                int next = node.hand & ~node.keepMasks[keep];
+                if (next == 0) next = universe.fullDeck;
+                long outcome = roll(next);
+                LongObjectMap<Node> outcomes = node.outcomes[keep];
+                if (outcomes == null) {
+                    outcomes = new LongObjectMap<>();
+                    node.outcomes[keep] = outcomes;
+                }
+                Node child = outcomes.get(outcome);
+                if (child == null) {
+                    child = newNode(next, points);
+                    outcomes.put(outcome, child);
+                    reward = playOut(child);
+                } else if (depth >= MAX_TREE_DEPTH) {
+                    reward = playOut(child);
+                } else {
+                    reward = iterate(child, depth + 1);
+                }
+            }
+            node.visits[move]++;
+            node.totals[move] += reward;
+            node.total++;
+            return reward;
+        }
+
+        /**
+         * Picks an untried move first, then the move with the best upper confidence bound.
+         */
+        private int select(Node node) {
+            double logTotal = Math.log(Math.max(1, node.total));
+            int best = 0;
+            double bestBound = Double.NEGATIVE_INFINITY;
+            for (int a = 0; a < node.visits.length; a++) {
+                if ((a & 1) == 1 && bankedScore + node.points + node.keepScores[a >> 1] >= scoreToWin) {
+                    continue; // Reaching the goal banks
+                }
+                if (node.visits[a] == 0) return a;
+                double bound = node.totals[a] / node.visits[a] / scale
+                        + EXPLORATION * Math.sqrt(logTotal / node.visits[a]);
+                if (bound > bestBound) {
+                    best = a;
+                    bestBound = bound;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Plays the rest of the turn by the default policy from a rolled node.
+         */
+        private double playOut(Node node) {
+            if (node.count == 0) return 0.0;
+            int points = node.points + node.keepScores[0];
+            int next = node.hand & ~node.keepMasks[0];
+            while (true) {
+                if (next == 0) next = universe.fullDeck;
+                if (bankedScore + points >= scoreToWin || !keepRolling(Integer.bitCount(next), points)) {
+                    return points;
+                }
+                roll(next);
+                int count = legalKeeps(next);
+                if (count == 0) return 0.0;
+                points += scores[0];
+                next &= ~masks[0];
+            }
+        }
+
+        /**
+         * Rolls the dice of a hand into {@link #faces} and returns the outcome as a key.
+         */
+        private long roll(int hand) {
+            long key = 0L;
+            for (int m = hand; m != 0; m &= m - 1) {
+                int index = Integer.numberOfTrailingZeros(m);
+                int face = universe.distributions[index].sample(random);
+                faces[index] = face;
+                key |= (long) face << (FACE_BITS * index);
+            }
+            return key;
+        }
+
+        /**
+         * Lists the legal keeps of the hand into {@link #masks} and {@link #scores}, as universe
+         * masks, best first. Dice of different kinds showing the same side are kept apart.
+         */
+        private int legalKeeps(int hand) {
+            int size = 0;
+            for (int m = hand; m != 0; m &= m - 1) {
+                int index = Integer.numberOfTrailingZeros(m);
+                handIndex[size] = index;
+                handKinds[size] = universe.kinds[index];
+                handFaces[size++] = faces[index];
+            }
+            int count = keeps.legalKeeps(handFaces, handKinds, size, masks, scores);
+            for (int k = 0; k < count; k++) {
+                int mask = 0;
+                for (int p = masks[k]; p != 0; p &= p - 1) {
+                    mask |= 1 << handIndex[Integer.numberOfTrailingZeros(p)];
+                }
+                masks[k] = mask;
+            }
+            return count;
+        }
+
+        private Node newNode(int hand, int points) {
+            int count = legalKeeps(hand);
+            int[] keepMasks = new int[count];
+            int[] keepScores = new int[count];
+            System.arraycopy(masks, 0, keepMasks, 0, count);
+            System.arraycopy(scores, 0, keepScores, 0, count);
+            return new Node(hand, points, count, keepMasks, keepScores);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package model.records.npc;
+
+import model.records.dice.Dice;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Decision engine of a computer player: given a roll, picks the dice to set aside and
+ * whether to roll on or bank afterwards.
+ */
+public interface NpcBrain {
+
+    /**
+     * Everything a decision depends on.
+     *
+     * @param roll        the dice just rolled, showing their sides
+     * @param deck        the player's whole deck, rolled again after hot dice
+     * @param turnScore   the points collected this turn before the roll
+     * @param bankedScore the points banked in earlier turns
+     * @param scoreToWin  the score that wins the game
+     * @param difficulty  the difficulty of the player
+     */
+    record Situation(List<Dice> roll, List<Dice> deck, int turnScore, int bankedScore, int scoreToWin,
+                     int difficulty) {
+    }
+
+    /**
+     * A decision.
+     *
+     * @param keepMask  bit {@code i} set to keep the {@code i}-th dice of the roll, 0 if the roll busts
+     * @param keepScore the score of the kept dice
+     * @param rollOn    true to roll the remaining dice, false to bank
+     */
+    record Move(int keepMask, int keepScore, boolean rollOn) {
+        public static final Move BUST = new Move(0, 0, false);
+    }
+
+    /**
+     * Decides what to do with a roll.
+     *
+     * @param situation the roll and the state of the game
+     * @param random    the stream to draw simulated rolls from
+     * @return the move, {@link Move#BUST} if nothing can be kept
+     */
+    Move decide(Situation situation, RandomGenerator.SplittableGenerator random);
+
+    /**
+     * Gets ready for a turn about to start, so that its decisions stay quick. Called when a game
+     * is set up and whenever the player's turn begins; does nothing by default.
+     *
+     * @param deck        the player's whole deck
+     * @param bankedScore the points banked in earlier turns
+     * @param scoreToWin  the score that wins the game
+     * @param difficulty  the difficulty of the player
+     */
+    default void prepare(List<Dice> deck, int bankedScore, int scoreToWin, int difficulty) {
+    }
+}
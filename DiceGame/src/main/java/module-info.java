@@ -11,6 +11,7 @@ module com.example.dicegame {
     requires junit;
     requires org.junit.jupiter.api;
     requires org.slf4j;
+    requires static jdk.incubator.vector;
 
     opens view.applications to javafx.fxml;
     exports view.applications;
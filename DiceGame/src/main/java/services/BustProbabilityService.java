@@ -0,0 +1,161 @@
+package services;
+
+import model.records.dice.Dice;
+import model.records.dice.DiceDeck;
+import model.records.dice.DiceDistribution;
+import model.records.dice.PackedRoll;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Singleton service computing the exact chance that rolling a set of dice scores nothing.
+ *
+ * <p>The chance depends only on the rules and on how many dice of each {@link DiceDistribution}
+ * are rolled, so dice of a Regular, Royal or Risk type, which all roll fairly, count as the same
+ * kind, while Lucky and Cursed dice each form their own. For every such composition the outcomes
+ * are listed with their exact probabilities by {@link StrategySolver}, just as the solver and the
+ * {@link ExpectimaxService} search list them, so hints and computer players agree on the odds; the
+ * sum of the probabilities of the rolls holding no scoring combination is the bust probability.</p>
+ *
+ * <p>Results are memoized per composition for the active rules, so after {@link #warmUp(DiceDeck)}
+ * has filled in every part of a deck, a query costs one pass over the dice and one lookup.
+ * Switching the rules of {@link ScoreCalculatorService} starts a fresh memo.</p>
+ */
+public class BustProbabilityService {
+    private static BustProbabilityService instance;
+
+    private final ScoreCalculatorService scoreService;
+
+    // Small index per distinct distribution, used to build composition keys
+    private final Map<DiceDistribution, Integer> kinds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextKind = new AtomicInteger(1);
+
+    private volatile Memo memo; // Results for the rules they were computed with
+
+    /**
+     * Bust probabilities computed for one rule set, keyed by composition.
+     */
+    private static final class Memo {
+        final ScoreTable table;
+        final Map<Long, Double> probabilities = new ConcurrentHashMap<>();
+
+        Memo(ScoreTable table) {
+            this.table = table;
+        }
+    }
+
+    // Private constructor for Singleton pattern
+    private BustProbabilityService() {
+        this(ScoreCalculatorService.getInstance());
+    }
+
+    BustProbabilityService(ScoreCalculatorService scoreService) {
+        this.scoreService = scoreService;
+        this.memo = new Memo(scoreService.getScoreTable());
+    }
+
+    public static synchronized BustProbabilityService getInstance() {
+        if (instance == null) {
+            instance = new BustProbabilityService();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the chance that rolling the given dice holds no scoring combination.
+     *
+     * @param dice the dice about to be rolled
+     * @return the bust probability, 1 if there are no dice
+     */
+    public double bustProbability(List<Dice> dice) {
+        int size = dice.size();
+        if (size == 0) return 1.0;
+
+        Memo current = currentMemo();
+        long key = compositionKey(dice);
+        if (key < 0) {
+            return compute(dice, current.table.getRules()); // Too many dice or kinds to key
+        }
+        Double known = current.probabilities.get(key);
+        if (known != null) return known;
+
+        double probability = compute(dice, current.table.getRules());
+        current.probabilities.put(key, probability);
+        return probability;
+    }
+
+    /**
+     * Computes the bust probability of every part of a deck in advance, so that
+     * later queries about its remaining dice are answered from the memo.
+     *
+     * @param deck the deck to prepare for
+     */
+    public void warmUp(DiceDeck deck) {
+        List<Dice> dice = deck.getDeck();
+        if (dice.size() > PackedRoll.MAX_DICE) return;
+
+        // Parts of equal composition share their entry, so this mostly hits the memo
+        List<Dice> part = new ArrayList<>(dice.size());
+        for (int mask = 1; mask < (1 << dice.size()); mask++) {
+            part.clear();
+            for (int m = mask; m != 0; m &= m - 1) {
+                part.add(dice.get(Integer.numberOfTrailingZeros(m)));
+            }
+            bustProbability(part);
+        }
+    }
+
+    private Memo currentMemo() {
+        Memo current = memo;
+        ScoreTable active = scoreService.getScoreTable();
+        if (current.table != active) {
+            current = new Memo(active);
+            memo = current;
+        }
+        return current;
+    }
+
+    /**
+     * Packs the sorted kinds of the dice, one byte each, or returns -1 if they do not fit.
+     */
+    private long compositionKey(List<Dice> dice) {
+        int size = dice.size();
+        if (size > PackedRoll.MAX_DICE) return -1;
+
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            int kind = kinds.computeIfAbsent(dice.get(i).getDistribution(), d -> nextKind.getAndIncrement());
+            if (kind > 0x7F) return -1;
+            int at = i;
+            while (at > 0 && sorted[at - 1] > kind) {
+                sorted[at] = sorted[at - 1];
+                at--;
+            }
+            sorted[at] = kind;
+        }
+
+        long key = 0L;
+        for (int kind : sorted) {
+            key = (key << 8) | kind;
+        }
+        return key;
+    }
+
+    /**
+     * Lists the outcomes of rolling the dice as the solver and the search do, and sums the busts.
+     */
+    private static double compute(List<Dice> dice, ScoringRules rules) {
+        List<DiceDistribution> kinds = StrategyTable.kindsOf(dice);
+        int[] counts = StrategyTable.countsOf(dice, kinds);
+        int[] radix = StrategyTable.radix(counts);
+        int composition = 0;
+        for (int k = 0; k < counts.length; k++) {
+            composition += counts[k] * radix[k];
+        }
+        return new StrategySolver.Transitions(composition, kinds, counts, radix, rules).bustProbability();
+    }
+}
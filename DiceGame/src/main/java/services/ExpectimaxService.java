@@ -0,0 +1,496 @@
+package services;
+
+import model.records.dice.Dice;
+import model.records.dice.DiceDistribution;
+import model.records.dice.PackedRoll;
+import utils.TranspositionTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Singleton service searching the rest of a turn exactly, to a limited number of rolls.
+ *
+ * <p>A state is the composition of the dice left to roll, the points collected this turn and
+ * the room left before the goal, i.e. the score to win minus the points banked. Rolling is a
+ * chance node over the composition's outcomes with their exact probabilities under each dice's
+ * own distribution, as listed by {@link StrategySolver}; each outcome is followed by the keep
+ * leading to the best state, and at the depth limit, or once the goal is reached, the points are
+ * banked. Unlike sampling the search is deterministic.</p>
+ *
+ * <p>A deck is searched once it has been {@linkplain #prepare(List) prepared}, which lists the
+ * outcomes of every part of it ahead of time, typically when a game is set up; a decision then
+ * only walks those lists and stays within its time limit.</p>
+ *
+ * <p>Values are shared by all searches through one {@link TranspositionTable} keyed by the
+ * packed state, so a turn's later decisions, and other players with the same deck, mostly hit
+ * states already searched. A chance node is cut off as soon as its outcomes left cannot lift
+ * it above banking or above the best alternative already found, since every roll adds at most
+ * the best score of the full deck.</p>
+ */
+public class ExpectimaxService {
+    private static ExpectimaxService instance;
+
+    /** The deepest search, in rolls. */
+    public static final int MAX_DEPTH = 15;
+
+    private static final int TABLE_SIZE = 1 << 18;
+    private static final int MAX_DECKS = 16;
+    private static final long MAX_OUTCOMES = 50_000; // Outcomes of rolling the full deck
+    private static final long MAX_TIMEOUT_NANOS = TimeUnit.DAYS.toNanos(1);
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final OutOfTime OUT_OF_TIME = new OutOfTime();
+
+    // Keys: room and turn points in 20 bits each, then the composition, the depth and the deck id
+    private static final int POINT_BITS = 20;
+    private static final int MAX_ROOM = (1 << POINT_BITS) - 1;
+    private static final int COMPOSITION_SHIFT = 2 * POINT_BITS;
+    private static final int DEPTH_SHIFT = COMPOSITION_SHIFT + 9;
+    private static final int DECK_SHIFT = DEPTH_SHIFT + 4;
+    private static final int DECK_IDS = 1 << (64 - DECK_SHIFT);
+
+    private final ScoreCalculatorService scoreService = ScoreCalculatorService.getInstance();
+    private final TranspositionTable table = new TranspositionTable(TABLE_SIZE);
+    private final Map<DeckKey, Deck> decks = new LinkedHashMap<>(MAX_DECKS, 0.75f, true);
+    private int nextDeckId;
+
+    /**
+     * The best move found for a roll.
+     *
+     * @param keepMask  bit {@code i} set to keep the {@code i}-th dice of the roll, 0 if the roll busts
+     * @param keepScore the score of the kept dice, 0 if the roll busts
+     * @param rollOn    true if rolling the remaining dice is worth more than banking
+     * @param value     the expected points the turn banks when the move is played
+     */
+    public record Choice(int keepMask, int keepScore, boolean rollOn, double value) {
+    }
+
+    private record DeckKey(List<DiceDistribution> kinds, List<Integer> counts, ScoringRules rules) {
+    }
+
+    /**
+     * Rolling one composition: its outcomes, and what a single roll is worth.
+     *
+     * <p>Outcomes offering the same keeps are merged and busts are left out, since they bank
+     * nothing; the rest are ordered by falling probability so a chance node can be cut off early.</p>
+     */
+    private static final class Chance {
+        final double[] probability;
+        final int[] firstOption; // Options of outcome o run up to firstOption[o + 1]
+        final int[] optionNext;
+        final int[] optionScore;
+        final double scoring; // Chance of not busting
+        final double meanBest; // Mean score of the best keep, a bust counting 0
+        final int maxScore; // Best score of any outcome
+
+        Chance(StrategySolver.Transitions t) {
+            Map<List<Integer>, Integer> merged = new HashMap<>();
+            List<List<Integer>> keeps = new ArrayList<>();
+            List<Double> weights = new ArrayList<>();
+            double meanBest = 0.0;
+            int maxScore = 0;
+            for (int o = 0; o < t.outcomes; o++) {
+                if (t.firstOption[o] == t.firstOption[o + 1]) continue; // Bust
+                List<Integer> options = new ArrayList<>();
+                int best = 0;
+                for (int i = t.firstOption[o]; i < t.firstOption[o + 1]; i++) {
+                    options.add(t.optionNext[i]);
+                    options.add(t.optionScore[i]);
+                    best = Math.max(best, t.optionScore[i]);
+                }
+                meanBest += t.probability[o] * best;
+                maxScore = Math.max(maxScore, best);
+                Integer index = merged.putIfAbsent(options, keeps.size());
+                if (index == null) {
+                    keeps.add(options);
+                    weights.add(t.probability[o]);
+                } else {
+                    weights.set(index, weights.get(index) + t.probability[o]);
+                }
+            }
+            this.scoring = 1.0 - t.bustProbability();
+            this.meanBest = meanBest;
+            this.maxScore = maxScore;
+
+            Integer[] order = new Integer[keeps.size()];
+            int options = 0;
+            for (int o = 0; o < order.length; o++) {
+                order[o] = o;
+                options += keeps.get(o).size() / 2;
+            }
+            Arrays.sort(order, (x, y) -> Double.compare(weights.get(y), weights.get(x)));
+            this.probability = new double[order.length];
+            this.firstOption = new int[order.length + 1];
+            this.optionNext = new int[options];
+            this.optionScore = new int[options];
+            int option = 0;
+            for (int o = 0; o < order.length; o++) {
+                probability[o] = weights.get(order[o]);
+                firstOption[o] = option;
+                List<Integer> keep = keeps.get(order[o]);
+                for (int i = 0; i < keep.size(); i += 2) {
+                    optionNext[option] = keep.get(i);
+                    optionScore[option++] = keep.get(i + 1);
+                }
+            }
+            firstOption[order.length] = option;
+        }
+
+        /**
+         * Returns the expected points of rolling once more and banking whatever is kept.
+         */
+        double rollOnce(int points) {
+            return points * scoring + meanBest;
+        }
+    }
+
+    /**
+     * A deck searched by this service, grouped into kinds of dice like a {@link StrategyTable}.
+     */
+    private static final class Deck {
+        final long id;
+        final List<DiceDistribution> kinds;
+        final int[] deckCounts;
+        final int[] radix;
+        final int full;
+        final ScoringRules rules;
+        final Chance[] chances;
+        final int maxStep; // Best score of one roll; no smaller part of the deck scores more
+        volatile boolean prepared; // Every chance is listed
+
+        Deck(long id, List<DiceDistribution> kinds, int[] deckCounts, ScoringRules rules) {
+            this.id = id;
+            this.kinds = kinds;
+            this.deckCounts = deckCounts;
+            this.radix = StrategyTable.radix(deckCounts);
+            this.rules = rules;
+            int compositions = 1;
+            int full = 0;
+            for (int k = 0; k < deckCounts.length; k++) {
+                compositions *= deckCounts[k] + 1;
+                full += deckCounts[k] * radix[k];
+            }
+            this.full = full;
+            this.chances = new Chance[compositions];
+            this.maxStep = chance(full).maxScore;
+        }
+
+        synchronized Chance chance(int composition) {
+            Chance chance = chances[composition];
+            if (chance == null) {
+                chance = new Chance(new StrategySolver.Transitions(composition, kinds, deckCounts, radix, rules));
+                chances[composition] = chance;
+            }
+            return chance;
+        }
+
+        void prepare() {
+            for (int composition = 1; composition < chances.length; composition++) {
+                chance(composition);
+            }
+            prepared = true;
+        }
+    }
+
+    /**
+     * Thrown up the search when its deadline passes; carries no stack trace.
+     */
+    private static final class OutOfTime extends RuntimeException {
+        OutOfTime() {
+            super("Search deadline passed", null, false, false);
+        }
+    }
+
+    // Private constructor for Singleton pattern
+    private ExpectimaxService() {}
+
+    public static synchronized ExpectimaxService getInstance() {
+        if (instance == null) {
+            instance = new ExpectimaxService();
+        }
+        return instance;
+    }
+
+    /**
+     * Lists the outcomes of every part of a deck, so that {@link #bestMove} can search it.
+     * Takes up to a second for the largest decks; a deck already prepared returns at once.
+     *
+     * @param deck the player's whole deck
+     * @return true if the deck can be searched, false if it is too large or too varied
+     */
+    public boolean prepare(List<Dice> deck) {
+        Deck d = deckOf(deck, true);
+        if (d == null) {
+            return false;
+        }
+        if (!d.prepared) {
+            d.prepare();
+        }
+        return true;
+    }
+
+    /**
+     * Finds the keep and the decision to bank or roll on that bank the most points on average.
+     *
+     * <p>The search deepens one roll at a time up to the given depth, each pass reusing the
+     * values of the last through the transposition table. If the time limit passes during a
+     * pass, the move of the last complete pass is returned; one roll ahead is always searched.
+     * Decks that have not been {@linkplain #prepare(List) prepared} are not searched, since
+     * listing their outcomes could take longer than the time limit.</p>
+     *
+     * @param deck        the player's whole deck, rolled again after hot dice
+     * @param roll        the dice just rolled, part of the deck
+     * @param turnScore   the points collected this turn before the roll
+     * @param bankedScore the points banked in earlier turns
+     * @param scoreToWin  the score that wins the game; reaching it banks
+     * @param depth       the most rolls to look ahead, 1 to {@link #MAX_DEPTH}
+     * @param timeout     the time to search deeper for
+     * @param unit        the unit of the timeout
+     * @return the best move, or null if the deck is not prepared, is too large or too varied to
+     *         search exactly, or the roll is not part of it
+     * @throws IllegalArgumentException if the depth is out of range
+     */
+    public Choice bestMove(List<Dice> deck, List<Dice> roll, int turnScore, int bankedScore, int scoreToWin,
+                           int depth, long timeout, TimeUnit unit) {
+        checkDepth(depth);
+        long deadline = System.nanoTime() + Math.min(unit.toNanos(timeout), MAX_TIMEOUT_NANOS);
+        if (roll.isEmpty() || roll.size() > KeepTable.MAX_DICE) {
+            return null;
+        }
+        Deck d = deckOf(deck, false);
+        if (d == null || !d.prepared) {
+            return null;
+        }
+
+        // Weight in the composition of every rolled dice
+        int[] faces = new int[roll.size()];
+        int[] kinds = new int[roll.size()];
+        int[] weight = new int[roll.size()];
+        int[] rolled = new int[d.kinds.size()];
+        int hand = 0;
+        for (int i = 0; i < roll.size(); i++) {
+            Dice dice = roll.get(i);
+            int kind = d.kinds.indexOf(dice.getDistribution());
+            if (kind < 0 || ++rolled[kind] > d.deckCounts[kind]) {
+                return null;
+            }
+            faces[i] = dice.getCurrentSide();
+            kinds[i] = kind;
+            weight[i] = d.radix[kind];
+            hand += weight[i];
+        }
+
+        int[] masks = new int[KeepTable.MAX_KEEPS];
+        int[] scores = new int[KeepTable.MAX_KEEPS];
+        int count = KeepTable.of(scoreService.getScoreTable()).legalKeeps(faces, kinds, faces.length, masks, scores);
+        if (count == 0) {
+            return new Choice(0, 0, false, 0.0);
+        }
+        int[] next = new int[count];
+        for (int k = 0; k < count; k++) {
+            next[k] = hand;
+            for (int m = masks[k]; m != 0; m &= m - 1) {
+                next[k] -= weight[Integer.numberOfTrailingZeros(m)];
+            }
+            if (next[k] == 0) next[k] = d.full;
+        }
+
+        int room = roomOf(bankedScore, scoreToWin);
+        Choice best = null;
+        for (int pass = 1; pass <= depth; pass++) {
+            try {
+                best = searchRoll(d, masks, scores, next, count, turnScore, room, pass, deadline);
+            } catch (OutOfTime e) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Searches every keep of a roll, to a fixed depth.
+     */
+    private Choice searchRoll(Deck d, int[] masks, int[] scores, int[] next, int count, int turnScore, int room,
+                              int depth, long deadline) {
+        Choice best = null;
+        for (int k = 0; k < count; k++) {
+            int points = turnScore + scores[k];
+            double rollOn = Double.NEGATIVE_INFINITY;
+            if (points < room) {
+                double floor = best == null ? points : Math.max(points, best.value());
+                rollOn = roll(d, next[k], points, room, depth, floor, deadline);
+            }
+            double value = Math.max(points, rollOn);
+            if (best == null || value > best.value()) {
+                best = new Choice(masks[k], scores[k], rollOn > points, value);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the expected points a turn banks when a composition is rolled now and the rest
+     * of the turn is played best, looking the given number of rolls ahead.
+     *
+     * @param deck        the player's whole deck
+     * @param dice        the dice about to be rolled, part of the deck, or none after hot dice
+     * @param turnScore   the points collected so far this turn
+     * @param bankedScore the points banked in earlier turns
+     * @param scoreToWin  the score that wins the game; reaching it banks
+     * @param depth       the rolls to look ahead, 1 to {@link #MAX_DEPTH}
+     * @return the expected banked points of rolling, a bust banking 0, or NaN if the deck cannot be searched
+     * @throws IllegalArgumentException if the depth is out of range
+     */
+    public double rollValue(List<Dice> deck, List<Dice> dice, int turnScore, int bankedScore, int scoreToWin,
+                            int depth) {
+        checkDepth(depth);
+        Deck d = deckOf(deck, true);
+        if (d == null) {
+            return Double.NaN;
+        }
+        int[] rolled = new int[d.kinds.size()];
+        int composition = 0;
+        for (Dice die : dice) {
+            int kind = d.kinds.indexOf(die.getDistribution());
+            if (kind < 0 || ++rolled[kind] > d.deckCounts[kind]) {
+                return Double.NaN;
+            }
+            composition += d.radix[kind];
+        }
+        return roll(d, composition == 0 ? d.full : composition, turnScore, roomOf(bankedScore, scoreToWin), depth,
+                Double.NEGATIVE_INFINITY, NO_DEADLINE);
+    }
+
+    private static void checkDepth(int depth) {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH + ", was " + depth);
+        }
+    }
+
+    // Room beyond the key's range is treated as a game that is never won this turn
+    private static int roomOf(int bankedScore, int scoreToWin) {
+        return (int) Math.min(Math.max((long) scoreToWin - bankedScore, 1L), MAX_ROOM);
+    }
+
+    /**
+     * Returns the value of a state: the better of banking and rolling on.
+     *
+     * @return the exact value if it exceeds {@code alpha}, otherwise a value not above {@code alpha}
+     */
+    private double value(Deck d, int composition, int points, int room, int depth, double alpha, long deadline) {
+        if (points >= room) {
+            return points;
+        }
+        if (depth == 1) {
+            return Math.max(points, d.chance(composition).rollOnce(points));
+        }
+        long key = d.id << DECK_SHIFT | (long) depth << DEPTH_SHIFT | (long) composition << COMPOSITION_SHIFT
+                | (long) points << POINT_BITS | room;
+        double cached = table.get(key);
+        if (!Double.isNaN(cached)) {
+            return cached;
+        }
+        double floor = Math.max(alpha, points);
+        double rollOn = roll(d, composition, points, room, depth, floor, deadline);
+        if (rollOn > floor) {
+            table.put(key, rollOn);
+            return rollOn;
+        }
+        if (alpha <= points) {
+            table.put(key, points); // Banking is best
+            return points;
+        }
+        return Math.max(points, rollOn); // Only a bound, not cached
+    }
+
+    /**
+     * Returns the expected points of rolling a composition, each outcome followed by its best keep.
+     *
+     * @return the exact value if it exceeds {@code floor}, otherwise a value not above {@code floor}
+     * @throws OutOfTime if the deadline has passed
+     */
+    private double roll(Deck d, int composition, int points, int room, int depth, double floor, long deadline) {
+        Chance chance = d.chance(composition);
+        if (depth == 1) {
+            return chance.rollOnce(points); // Every outcome banks
+        }
+        if (deadline != NO_DEADLINE && System.nanoTime() - deadline > 0) {
+            throw OUT_OF_TIME;
+        }
+        // No outcome is worth more than this roll's best keep and the deck's best for every roll after,
+        // nor more than one keep past the goal
+        double bound = Math.min(points + chance.maxScore + (depth - 1.0) * d.maxStep,
+                Math.max(points, room - 1) + d.maxStep);
+        double sum = 0.0;
+        double mass = chance.scoring;
+        for (int o = 0; o < chance.probability.length; o++) {
+            if (sum + mass * bound <= floor) {
+                return sum + mass * bound;
+            }
+            double best = 0.0;
+            for (int i = chance.firstOption[o]; i < chance.firstOption[o + 1]; i++) {
+                int next = chance.optionNext[i] == 0 ? d.full : chance.optionNext[i];
+                double v = value(d, next, points + chance.optionScore[i], room, depth - 1, best, deadline);
+                if (v > best) best = v;
+            }
+            sum += chance.probability[o] * best;
+            mass -= chance.probability[o];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the search context of a deck, creating it on first use if asked to.
+     *
+     * @return the context, or null if the deck cannot be searched exactly or has no context yet
+     */
+    private synchronized Deck deckOf(List<Dice> deck, boolean create) {
+        if (deck.isEmpty() || deck.size() > PackedRoll.MAX_DICE) {
+            return null;
+        }
+        List<DiceDistribution> kinds = StrategyTable.kindsOf(deck);
+        int[] counts = StrategyTable.countsOf(deck, kinds);
+        ScoringRules rules = scoreService.getRules();
+        DeckKey key = new DeckKey(kinds, Arrays.stream(counts).boxed().toList(), rules);
+        Deck d = decks.get(key);
+        if (d != null || !create) {
+            return d;
+        }
+
+        long outcomes = 1;
+        for (int k = 0; k < kinds.size(); k++) {
+            outcomes *= multisets(counts[k], kinds.get(k).size());
+            if (outcomes > MAX_OUTCOMES) {
+                return null;
+            }
+        }
+        if (nextDeckId == DECK_IDS) {
+            // Deck ids wrap around: forget every deck holding an id about to be reused, and its values
+            decks.clear();
+            table.clear();
+            nextDeckId = 0;
+        }
+        d = new Deck(nextDeckId++, kinds, counts, rules);
+        decks.put(key, d);
+        if (decks.size() > MAX_DECKS) {
+            decks.remove(decks.keySet().iterator().next());
+        }
+        return d;
+    }
+
+    /**
+     * Counts the multisets of {@code n} dice over {@code sides} sides.
+     */
+    private static long multisets(int n, int sides) {
+        long count = 1;
+        for (int i = 1; i <= n; i++) {
+            count = count * (sides - 1 + i) / i;
+        }
+        return count;
+    }
+}
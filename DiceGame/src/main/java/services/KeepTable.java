@@ -0,0 +1,421 @@
+package services;
+
+import model.records.dice.PackedRoll;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed legal keeps of every multiset of up to six dice showing sides 1 to 6,
+ * under the rules of one {@link ScoreTable}.
+ *
+ * <p>A keep is a non-empty part of a roll in which every dice takes part in a scoring
+ * combination, i.e. a part the player may set aside. For each face multiset, identified by
+ * its {@link ScoreTable} count code, the table lists the count codes and scores of all its
+ * legal keeps, best score first and, for equal scores, more dice first.</p>
+ *
+ * <p>{@link #legalKeeps(int[], int, int[], int[])} turns those entries into bitmasks over the
+ * positions of an actual roll, bit {@code i} standing for the {@code i}-th dice. Every distinct
+ * multiset of kept dice is listed once, equal faces being taken from the lowest positions. A roll is thus answered with a lookup and a few bit
+ * operations per keep, without allocating anything. Rolls beyond the table, with more dice or
+ * higher sides, are enumerated subset by subset.</p>
+ *
+ * <p>{@link #legalKeeps(int[], int[], int, int[], int[])} tells dice of different kinds apart:
+ * keeping a weighted 5 or a regular 5 scores the same but leaves different dice to roll, so
+ * both are listed. It walks the multisets of (kind, side) pairs directly, scoring each with one
+ * lookup of its face counts.</p>
+ */
+public final class KeepTable {
+
+    /**
+     * Largest number of dice a roll passed to {@link #legalKeeps} may hold.
+     */
+    public static final int MAX_DICE = 8;
+
+    /**
+     * Largest number of legal keeps a roll can have, one per non-empty subset of {@link #MAX_DICE} dice.
+     */
+    public static final int MAX_KEEPS = (1 << MAX_DICE) - 1;
+
+    private final ScoreTable scoreTable; // Scores the keeps, and through its rules the rolls beyond the table
+    private final char[] first; // Index of the first keep of every count code; the next entry ends its run
+    private final int[] keepCounts; // Counts of every keep, 4 bits per side starting with side 1
+    private final int[] keepCodes; // Count code of every keep
+    private final short[] keepScores; // Score of every keep
+
+    private KeepTable(ScoreTable scoreTable, char[] first, int[] keepCounts, int[] keepCodes, short[] keepScores) {
+        this.scoreTable = scoreTable;
+        this.first = first;
+        this.keepCounts = keepCounts;
+        this.keepCodes = keepCodes;
+        this.keepScores = keepScores;
+    }
+
+    /**
+     * Returns the keep table for the standard rules.
+     *
+     * @return the shared standard table
+     */
+    public static KeepTable standard() {
+        return Standard.TABLE;
+    }
+
+    // Built on first use
+    private static final class Standard {
+        static final KeepTable TABLE = of(ScoreTable.standard());
+    }
+
+    /**
+     * Returns the keep table for the rules a score table was compiled from. The table is built
+     * once and kept, and collected, with the score table.
+     *
+     * @param scores the compiled rules
+     * @return the keep table of the rules
+     */
+    public static KeepTable of(ScoreTable scores) {
+        KeepTable table = scores.keepTable;
+        if (table == null) {
+            synchronized (scores) {
+                table = scores.keepTable;
+                if (table == null) {
+                    table = build(scores);
+                    scores.keepTable = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Lists the legal keeps of every multiset covered by the score table.
+     */
+    private static KeepTable build(ScoreTable scores) {
+        char[] first = new char[ScoreTable.CODES + 1];
+        int[] counts = new int[ScoreTable.MAX_FACE + 1];
+        int[] sub = new int[ScoreTable.MAX_FACE + 1];
+
+        // Keeps of one multiset, sorted before they are appended
+        long[] pending = new long[1 << ScoreTable.MAX_DICE];
+        int capacity = 1 << 16;
+        int[] keepCounts = new int[capacity];
+        int[] keepCodes = new int[capacity];
+        short[] keepScores = new short[capacity];
+        int total = 0;
+
+        for (int code = 0; code < ScoreTable.CODES; code++) {
+            first[code] = (char) total;
+            if (ScoreTable.decode(code, counts) > ScoreTable.MAX_DICE) continue;
+
+            int found = 0;
+            // Walk every sub-multiset as a mixed-radix number, digit f running from 0 to counts[f]
+            for (int subCode = code; subCode > 0; subCode = previousSubCode(subCode, counts, sub)) {
+                int score = scores.score(subCode);
+                if (score == 0) continue;
+                int dice = ScoreTable.decode(subCode, sub);
+                // Sort key: score descending, then dice descending, then the code itself
+                pending[found++] = ((long) (Short.MAX_VALUE - score) << 40) | ((long) (8 - dice) << 32) | subCode;
+            }
+            Arrays.sort(pending, 0, found);
+
+            for (int k = 0; k < found; k++) {
+                int subCode = (int) pending[k];
+                ScoreTable.decode(subCode, sub);
+                int packed = 0;
+                for (int face = 1; face <= ScoreTable.MAX_FACE; face++) {
+                    packed |= sub[face] << (4 * (face - 1));
+                }
+                keepCounts[total] = packed;
+                keepCodes[total] = subCode;
+                keepScores[total] = (short) scores.score(subCode);
+                total++;
+            }
+        }
+        first[ScoreTable.CODES] = (char) total;
+
+        return new KeepTable(scores, first,
+                Arrays.copyOf(keepCounts, total),
+                Arrays.copyOf(keepCodes, total),
+                Arrays.copyOf(keepScores, total));
+    }
+
+    /**
+     * Steps to the next smaller sub-multiset of {@code counts}, in the order of their codes.
+     */
+    private static int previousSubCode(int subCode, int[] counts, int[] scratch) {
+        ScoreTable.decode(subCode, scratch);
+        for (int face = 1; face <= ScoreTable.MAX_FACE; face++) {
+            if (scratch[face] > 0) {
+                // Decrement this digit and reset the lower ones to their maximum
+                int result = subCode - ScoreTable.weight(face);
+                for (int lower = 1; lower < face; lower++) {
+                    result += counts[lower] * ScoreTable.weight(lower);
+                }
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns how many legal keeps a multiset has.
+     *
+     * @param code the count code of the multiset
+     * @return the number of legal keeps
+     */
+    public int keepCount(int code) {
+        return first[code + 1] - first[code];
+    }
+
+    /**
+     * Returns the count code of one legal keep of a multiset.
+     *
+     * @param code  the count code of the multiset
+     * @param index the keep, 0 being the best scoring one
+     * @return the count code of the kept dice
+     */
+    public int keepCode(int code, int index) {
+        return keepCodes[first[code] + index];
+    }
+
+    /**
+     * Returns the score of one legal keep of a multiset.
+     *
+     * @param code  the count code of the multiset
+     * @param index the keep, 0 being the best scoring one
+     * @return the score of the kept dice
+     */
+    public int keepScore(int code, int index) {
+        return keepScores[first[code] + index];
+    }
+
+    /**
+     * Lists the legal keeps of a roll as position bitmasks with their scores, best first.
+     *
+     * @param faces  the side showing on each dice
+     * @param size   the number of dice, at most {@link #MAX_DICE}
+     * @param masks  receives one position bitmask per keep
+     * @param scores receives the score of each keep
+     * @return the number of keeps written, at most the length of {@code masks}
+     * @throws IllegalArgumentException if the roll holds more than {@link #MAX_DICE} dice
+     */
+    public int legalKeeps(int[] faces, int size, int[] masks, int[] scores) {
+        if (size > MAX_DICE) {
+            throw new IllegalArgumentException("Legal keeps are listed for at most " + MAX_DICE + " dice");
+        }
+
+        long faceMasks = 0L; // Byte f - 1 holds the positions showing side f
+        int code = 0;
+        if (size <= ScoreTable.MAX_DICE) {
+            for (int i = 0; i < size; i++) {
+                int face = faces[i];
+                if (face < 1 || face > ScoreTable.MAX_FACE) {
+                    code = -1;
+                    break;
+                }
+                faceMasks |= 1L << (8 * (face - 1) + i);
+                code += ScoreTable.weight(face);
+            }
+        } else {
+            code = -1;
+        }
+        if (code < 0) {
+            return enumerateKeeps(faces, null, size, masks, scores);
+        }
+        return keepsFromTable(code, faceMasks, masks, scores);
+    }
+
+    /**
+     * Lists the legal keeps of a roll of dice of several kinds as position bitmasks with their
+     * scores, best first. Every distinct multiset of kept (kind, side) pairs is listed once,
+     * equal pairs being taken from the lowest positions.
+     *
+     * @param faces  the side showing on each dice
+     * @param kinds  the kind of each dice, dice of equal kinds rolling alike
+     * @param size   the number of dice, at most {@link #MAX_DICE}
+     * @param masks  receives one position bitmask per keep
+     * @param scores receives the score of each keep
+     * @return the number of keeps written, at most the length of {@code masks}
+     * @throws IllegalArgumentException if the roll holds more than {@link #MAX_DICE} dice
+     */
+    public int legalKeeps(int[] faces, int[] kinds, int size, int[] masks, int[] scores) {
+        if (size > MAX_DICE) {
+            throw new IllegalArgumentException("Legal keeps are listed for at most " + MAX_DICE + " dice");
+        }
+
+        long groupMasks = 0L; // Byte g holds the positions of the g-th (kind, side) pair
+        int groups = 0;
+        boolean mixed = false; // Some side shows on dice of different kinds
+        boolean inTable = size <= ScoreTable.MAX_DICE;
+        for (int i = 0; i < size; i++) {
+            int face = faces[i];
+            inTable &= face >= 1 && face <= ScoreTable.MAX_FACE;
+            int g = 0;
+            for (; g < groups; g++) {
+                int lowest = Integer.numberOfTrailingZeros((int) (groupMasks >>> (8 * g)) & 0xFF);
+                if (faces[lowest] != face) continue;
+                if (kinds[lowest] == kinds[i]) break;
+                mixed = true;
+            }
+            if (g == groups) {
+                groups++;
+            }
+            groupMasks |= 1L << (8 * g + i);
+        }
+
+        if (!mixed) {
+            return legalKeeps(faces, size, masks, scores); // Equal sides are of one kind: the sides decide
+        }
+        if (!inTable) {
+            return enumerateKeeps(faces, kinds, size, masks, scores);
+        }
+        return keepsOfGroups(faces, groupMasks, groups, 0, 0, 0, masks, scores, 0);
+    }
+
+    /**
+     * Takes 0 to all dice of each (kind, side) group in turn, lowest positions first,
+     * and lists every scoring result.
+     *
+     * @param groupMasks byte {@code g} holds the positions of group {@code g}
+     * @param mask       the positions kept from the groups before {@code g}
+     * @param code       the count code of their faces
+     * @return the number of keeps listed so far
+     */
+    private int keepsOfGroups(int[] faces, long groupMasks, int groups, int g, int mask, int code,
+                              int[] masks, int[] scores, int count) {
+        if (g == groups) {
+            int score = mask == 0 ? 0 : scoreTable.score(code);
+            return score == 0 ? count : insert(mask, score, masks, scores, count);
+        }
+        int positions = (int) (groupMasks >>> (8 * g)) & 0xFF;
+        int weight = ScoreTable.weight(faces[Integer.numberOfTrailingZeros(positions)]);
+        count = keepsOfGroups(faces, groupMasks, groups, g + 1, mask, code, masks, scores, count);
+        while (positions != 0) {
+            int lowest = positions & -positions;
+            mask |= lowest;
+            code += weight;
+            positions ^= lowest;
+            count = keepsOfGroups(faces, groupMasks, groups, g + 1, mask, code, masks, scores, count);
+        }
+        return count;
+    }
+
+    /**
+     * Lists the legal keeps of a packed roll as slot bitmasks with their scores, best first.
+     *
+     * @param packedRoll the roll, packed with {@link PackedRoll}
+     * @param masks      receives one slot bitmask per keep
+     * @param scores     receives the score of each keep
+     * @return the number of keeps written, at most the length of {@code masks}
+     */
+    public int legalKeeps(long packedRoll, int[] masks, int[] scores) {
+        int size = PackedRoll.size(packedRoll);
+        long faceMasks = 0L;
+        int code = 0;
+        for (int i = 0; i < size && code >= 0; i++) {
+            int face = PackedRoll.face(packedRoll, i);
+            if (face > ScoreTable.MAX_FACE || size > ScoreTable.MAX_DICE) {
+                code = -1;
+            } else {
+                faceMasks |= 1L << (8 * (face - 1) + i);
+                code += ScoreTable.weight(face);
+            }
+        }
+        if (code >= 0) {
+            return keepsFromTable(code, faceMasks, masks, scores);
+        }
+
+        int[] faces = new int[size];
+        for (int i = 0; i < size; i++) {
+            faces[i] = PackedRoll.face(packedRoll, i);
+        }
+        return enumerateKeeps(faces, null, size, masks, scores);
+    }
+
+    /**
+     * Translates the keeps of a multiset to positions, taking equal faces from the lowest positions.
+     *
+     * @param faceMasks byte {@code f - 1} holds the positions showing side {@code f}
+     */
+    private int keepsFromTable(int code, long faceMasks, int[] masks, int[] scores) {
+        int from = first[code];
+        int count = Math.min(first[code + 1] - from, masks.length);
+        for (int k = 0; k < count; k++) {
+            int keep = keepCounts[from + k];
+            int mask = 0;
+            for (int face = 1; keep != 0; face++, keep >>>= 4) {
+                int positions = (int) (faceMasks >>> (8 * (face - 1))) & 0xFF;
+                for (int c = keep & 0xF; c > 0; c--) {
+                    int lowest = positions & -positions;
+                    mask |= lowest;
+                    positions ^= lowest;
+                }
+            }
+            masks[k] = mask;
+            scores[k] = keepScores[from + k];
+        }
+        return count;
+    }
+
+    /**
+     * Finds the legal keeps of a roll beyond the table by scoring every subset of its dice.
+     *
+     * @param kinds the kind of each dice, or null if they are all alike
+     */
+    private int enumerateKeeps(int[] faces, int[] kinds, int size, int[] masks, int[] scores) {
+        int maxFace = 0;
+        for (int i = 0; i < size; i++) {
+            maxFace = Math.max(maxFace, faces[i]);
+        }
+        int[] counts = new int[Math.max(maxFace, ScoreTable.MAX_FACE) + 1];
+
+        int count = 0;
+        for (int mask = 1; mask < (1 << size); mask++) {
+            if (!takesLowestPositions(faces, kinds, size, mask)) continue;
+            Arrays.fill(counts, 0);
+            for (int m = mask; m != 0; m &= m - 1) {
+                counts[faces[Integer.numberOfTrailingZeros(m)]]++;
+            }
+            int score = scoreTable.getRules().score(counts, Integer.bitCount(mask));
+            if (score == 0) continue;
+            count = insert(mask, score, masks, scores, count);
+        }
+        return count;
+    }
+
+    /**
+     * Inserts a keep into the listed ones, keeping them ordered like the table: score, then dice,
+     * descending. Once the arrays are full, the worst keep falls off.
+     *
+     * @return the number of keeps listed
+     */
+    private static int insert(int mask, int score, int[] masks, int[] scores, int count) {
+        int at = count < masks.length ? count++ : masks.length;
+        while (at > 0 && (scores[at - 1] < score
+                || (scores[at - 1] == score && Integer.bitCount(masks[at - 1]) < Integer.bitCount(mask)))) {
+            if (at < masks.length) {
+                masks[at] = masks[at - 1];
+                scores[at] = scores[at - 1];
+            }
+            at--;
+        }
+        if (at < masks.length) {
+            masks[at] = mask;
+            scores[at] = score;
+        }
+        return count;
+    }
+
+    /**
+     * Tells whether the mask keeps, for every side and kind, the lowest positions showing it,
+     * so that each multiset of kept dice is listed once.
+     */
+    private static boolean takesLowestPositions(int[] faces, int[] kinds, int size, int mask) {
+        for (int i = 0; i < size; i++) {
+            if ((mask & (1 << i)) != 0) continue;
+            for (int j = i + 1; j < size; j++) {
+                if ((mask & (1 << j)) != 0 && faces[j] == faces[i]
+                        && (kinds == null || kinds[j] == kinds[i])) return false;
+            }
+        }
+        return true;
+    }
+}
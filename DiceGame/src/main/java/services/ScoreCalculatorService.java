@@ -1,14 +1,59 @@
 package services;
 
 import model.records.dice.Dice;
+import model.records.dice.PackedRoll;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class ScoreCalculatorService {
     private static ScoreCalculatorService instance;
 
+    /**
+     * System property naming the rules to play by: a preset name or the path of a rules file.
+     */
+    public static final String RULES_PROPERTY = "dice.rules";
+
+    // Active compiled rules; replaced as a whole so every call sees one consistent rule set
+    private volatile Tables tables;
+
+    /**
+     * The tables compiled from one rule set.
+     */
+    private static final class Tables {
+        final ScoreTable scores; // Scores of every roll of up to six dice
+        final KeepTable keeps; // Legal keeps of every roll of up to six dice
+
+        Tables(ScoreTable scores) {
+            this.scores = scores;
+            this.keeps = KeepTable.of(scores);
+        }
+    }
+
     // Private constructor for Singleton pattern
-    private ScoreCalculatorService() {}
+    private ScoreCalculatorService() {
+        tables = new Tables(ScoreTable.compile(configuredRules()));
+    }
+
+    /**
+     * Reads the rules named by {@link #RULES_PROPERTY}, falling back to the standard rules.
+     */
+    private static ScoringRules configuredRules() {
+        String setting = System.getProperty(RULES_PROPERTY);
+        if (setting == null || setting.isBlank()) {
+            return ScoringRules.STANDARD;
+        }
+        try {
+            Path file = Path.of(setting);
+            return Files.isRegularFile(file) ? ScoringRules.load(file) : ScoringRules.preset(setting);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Cannot use scoring rules '" + setting + "', playing by the standard rules: " + e.getMessage());
+            return ScoringRules.STANDARD;
+        }
+    }
 
     public static synchronized ScoreCalculatorService getInstance() {
         if (instance == null) {
@@ -18,12 +63,151 @@ public class ScoreCalculatorService {
     }
 
     /**
-     * Main method to calculate score
+     * Switches the rules every score and keep is computed by. The rules are compiled into
+     * lookup tables once; switching back to rules used before reuses their tables.
+     * @param rules the rules to play by
+     * @throws exceptions.WrongScoringRules if the rules score beyond what the tables can hold
+     */
+    public void setRules(ScoringRules rules) {
+        tables = new Tables(ScoreTable.compile(rules));
+    }
+
+    /**
+     * Returns the rules scores are currently computed by.
+     * @return the active rules
+     */
+    public ScoringRules getRules() {
+        return tables.scores.getRules();
+    }
+
+    /**
+     * Returns the score table of the active rules, for callers that keep their own count codes.
+     * @return the active score table
+     */
+    public ScoreTable getScoreTable() {
+        return tables.scores;
+    }
+
+    /**
+     * Main method to calculate score.
+     * Up to six dice showing sides 1 to 6 are scored with a single lookup in the precomputed
+     * {@link ScoreTable} of the active rules; anything else is scored by the rules directly.
      * @param diceList list of dice
      * @return score based on Farkle rules
      */
     public int calculateScore(List<Dice> diceList) {
         if (diceList == null || diceList.isEmpty()) return 0;
+        ScoreTable table = tables.scores;
+        if (diceList.size() > ScoreTable.MAX_DICE) return table.getRules().score(faceCounts(diceList), diceList.size());
+
+        int code = 0;
+        for (int i = 0; i < diceList.size(); i++) {
+            int side = diceList.get(i).getCurrentSide();
+            if (side < 1 || side > ScoreTable.MAX_FACE) return table.getRules().score(faceCounts(diceList), diceList.size());
+            code += ScoreTable.weight(side);
+        }
+        return table.score(code);
+    }
+
+    /**
+     * Counts the dice showing each side, for rolls beyond the tables
+     */
+    private static int[] faceCounts(List<Dice> diceList) {
+        int maxSide = ScoreTable.MAX_FACE;
+        for (Dice dice : diceList) {
+            maxSide = Math.max(maxSide, dice.getCurrentSide());
+        }
+        int[] counts = new int[maxSide + 1];
+        for (Dice dice : diceList) {
+            counts[dice.getCurrentSide()]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Calculates the score of dice given as face counts, without creating any objects.
+     * @param faceCounts number of dice showing each side, indexed by side; index 0 is ignored
+     * @return score based on Farkle rules
+     */
+    public int scoreFaceCounts(int[] faceCounts) {
+        int code = 0;
+        int dice = 0;
+        boolean inTable = true;
+        for (int side = 1; side < faceCounts.length; side++) {
+            int count = faceCounts[side];
+            if (count == 0) continue;
+            dice += count;
+            if (side > ScoreTable.MAX_FACE) inTable = false;
+            else code += count * ScoreTable.weight(side);
+        }
+        ScoreTable table = tables.scores;
+        if (inTable && dice <= ScoreTable.MAX_DICE) return table.score(code);
+        return table.getRules().score(faceCounts, dice);
+    }
+
+    /**
+     * Calculates the score of a roll packed with {@link PackedRoll}, without creating any objects.
+     * @param packedRoll the packed roll
+     * @return score based on Farkle rules
+     */
+    public int scorePacked(long packedRoll) {
+        ScoreTable table = tables.scores;
+        int size = PackedRoll.size(packedRoll);
+        if (size <= ScoreTable.MAX_DICE) {
+            int code = 0;
+            for (int slot = 0; slot < size && code >= 0; slot++) {
+                int side = PackedRoll.face(packedRoll, slot);
+                code = side > ScoreTable.MAX_FACE ? -1 : code + ScoreTable.weight(side);
+            }
+            if (code >= 0) return table.score(code);
+        }
+
+        // More dice or higher sides than the table covers
+        int[] faceCounts = new int[PackedRoll.MAX_SIDE + 1];
+        PackedRoll.faceCounts(packedRoll, faceCounts);
+        return table.getRules().score(faceCounts, size);
+    }
+
+    /**
+     * Lists every legal keep of a roll, i.e. every part of it the player may set aside,
+     * as a bitmask over the list positions (bit i for the i-th dice) with its score, best first.
+     * @param diceList the rolled dice, at most {@link KeepTable#MAX_DICE}
+     * @param masks receives the bitmask of each keep; {@link KeepTable#MAX_KEEPS} entries always suffice
+     * @param scores receives the score of each keep
+     * @return the number of keeps written
+     */
+    public int legalKeeps(List<Dice> diceList, int[] masks, int[] scores) {
+        int size = diceList.size();
+        if (size > KeepTable.MAX_DICE) {
+            throw new IllegalArgumentException("Legal keeps are listed for at most " + KeepTable.MAX_DICE + " dice");
+        }
+        int[] faces = new int[size];
+        for (int i = 0; i < size; i++) {
+            faces[i] = diceList.get(i).getCurrentSide();
+        }
+        return tables.keeps.legalKeeps(faces, size, masks, scores);
+    }
+
+    /**
+     * Lists every legal keep of a packed roll as a slot bitmask with its score, best first.
+     * @param packedRoll the roll, packed with {@link PackedRoll}
+     * @param masks receives the bitmask of each keep; {@link KeepTable#MAX_KEEPS} entries always suffice
+     * @param scores receives the score of each keep
+     * @return the number of keeps written
+     */
+    public int legalKeeps(long packedRoll, int[] masks, int[] scores) {
+        return tables.keeps.legalKeeps(packedRoll, masks, scores);
+    }
+
+    /**
+     * Calculates the score by the standard rules, applied to a frequency map of the dice.
+     * Handles any number of dice and sides and ignores the active rules; it serves as the
+     * reference the compiled {@link ScoringRules#STANDARD} tables are checked against.
+     * @param diceList list of dice
+     * @return score based on the standard Farkle rules
+     */
+    public int calculateStandardScore(List<Dice> diceList) {
+        if (diceList == null || diceList.isEmpty()) return 0;
 
         Map<Integer, Integer> frequencyMap = createFrequencyMap(diceList);
 
@@ -69,8 +253,8 @@ public class ScoreCalculatorService {
      * Checks for special combinations with 6 dice
      */
     private int checkSpecialCombinations(Map<Integer, Integer> freqMap) {
-        // Straight (1 through 6)
-        if (freqMap.size() == 6) return 1500;
+        // Straight (1 through 6); dice with more sides may show six other distinct values
+        if (freqMap.size() == 6 && isStraight(freqMap)) return 1500;
 
         // Three pairs
         if (freqMap.size() == 3 && freqMap.values().stream().allMatch(c -> c == 2))
@@ -88,7 +272,19 @@ public class ScoreCalculatorService {
     }
 
     /**
-     * Standard score calculation
+     * Checks that the six distinct values are exactly 1 through 6
+     */
+    private boolean isStraight(Map<Integer, Integer> freqMap) {
+        for (int value = 1; value <= 6; value++) {
+            if (!freqMap.containsKey(value)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Standard score calculation.
+     * Works per distinct value shown, so its cost depends on the number of dice only,
+     * not on how many sides they have; triples of values above 6 score value * 100.
      */
     private int calculateStandardScores(Map<Integer, Integer> freqMap) {
         int score = 0;
@@ -125,6 +321,51 @@ public class ScoreCalculatorService {
      */
     public boolean hasAnyScoringCombination(List<Dice> diceList) {
         if (diceList == null || diceList.isEmpty()) return false;
+        ScoreTable table = tables.scores;
+        if (diceList.size() > ScoreTable.MAX_DICE) {
+            return table.getRules().hasScoringCombination(faceCounts(diceList), diceList.size());
+        }
+
+        int code = 0;
+        for (int i = 0; i < diceList.size(); i++) {
+            int side = diceList.get(i).getCurrentSide();
+            if (side < 1 || side > ScoreTable.MAX_FACE) {
+                return table.getRules().hasScoringCombination(faceCounts(diceList), diceList.size());
+            }
+            code += ScoreTable.weight(side);
+        }
+        return table.hasScoringCombination(code);
+    }
+
+    /**
+     * Checks if dice given as face counts hold any scoring combination, without creating any objects.
+     * @param faceCounts number of dice showing each side, indexed by side; index 0 is ignored
+     * @return true if there is at least one scoring combination, false otherwise
+     */
+    public boolean hasScoringFaceCounts(int[] faceCounts) {
+        int code = 0;
+        int dice = 0;
+        boolean inTable = true;
+        for (int side = 1; side < faceCounts.length; side++) {
+            int count = faceCounts[side];
+            if (count == 0) continue;
+            dice += count;
+            if (side > ScoreTable.MAX_FACE) inTable = false;
+            else code += count * ScoreTable.weight(side);
+        }
+        ScoreTable table = tables.scores;
+        if (inTable && dice <= ScoreTable.MAX_DICE) return table.hasScoringCombination(code);
+        return table.getRules().hasScoringCombination(faceCounts, dice);
+    }
+
+    /**
+     * Checks for a scoring combination by the standard rules, applied to a frequency map of the dice.
+     * Ignores the active rules; it serves as the reference for the compiled standard tables.
+     * @param diceList list of dice
+     * @return true if there is at least one scoring combination, false otherwise
+     */
+    public boolean hasAnyStandardScoringCombination(List<Dice> diceList) {
+        if (diceList == null || diceList.isEmpty()) return false;
 
         Map<Integer, Integer> frequencyMap = createFrequencyMap(diceList);
 
@@ -0,0 +1,179 @@
+package services;
+
+import exceptions.WrongScoringRules;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Precomputed scores of every multiset of up to six dice showing sides 1 to 6, compiled from
+ * a {@link ScoringRules} rule set.
+ *
+ * <p>A multiset is identified by its base-7 count code: the number of dice showing side
+ * {@code f} is the {@code f}-th base-7 digit, so the code is the sum of {@link #weight(int)}
+ * over the dice and can be built incrementally as dice are added. Scoring a multiset is then
+ * a single array read. Of the 7<sup>6</sup> codes, the 924 with at most six dice in total
+ * are filled in; the others score 0. A bit set next to the scores tells, just as cheaply,
+ * whether a roll holds any scoring combination at all or is a bust.</p>
+ */
+public final class ScoreTable {
+
+    /**
+     * Largest number of dice covered by the table.
+     */
+    public static final int MAX_DICE = 6;
+
+    /**
+     * Highest side covered by the table.
+     */
+    public static final int MAX_FACE = 6;
+
+    /**
+     * Number of count codes, 7<sup>6</sup>.
+     */
+    public static final int CODES = 117_649;
+
+    // WEIGHTS[f] = 7^(f - 1), the code contribution of one dice showing f
+    private static final int[] WEIGHTS = {0, 1, 7, 49, 343, 2_401, 16_807};
+
+    // Tables compiled so far, one per distinct rule set, held weakly so that unused ones are collected
+    private static final Map<ScoringRules, WeakReference<ScoreTable>> COMPILED = new WeakHashMap<>();
+
+    private final ScoringRules rules; // Rules the table was compiled from
+    private final short[] scores; // Score of every count code
+    private final long[] scoring; // Bit per count code, set if some of the dice score
+    volatile KeepTable keepTable; // Built by KeepTable.of on first use, collected with this table
+
+    private ScoreTable(ScoringRules rules, short[] scores, long[] scoring) {
+        this.rules = rules;
+        this.scores = scores;
+        this.scoring = scoring;
+    }
+
+    /**
+     * Returns the table for the standard Farkle rules.
+     *
+     * @return the shared standard table
+     */
+    public static ScoreTable standard() {
+        return Standard.TABLE;
+    }
+
+    // Built on first use
+    private static final class Standard {
+        static final ScoreTable TABLE = compile(ScoringRules.STANDARD);
+    }
+
+    /**
+     * Compiles a rule set into a score table. Tables are cached while in use, so rule sets with
+     * equal values share one.
+     *
+     * @param rules the rules to compile
+     * @return the table of the rules
+     * @throws WrongScoringRules if some multiset scores more than a table entry can hold
+     */
+    public static ScoreTable compile(ScoringRules rules) {
+        synchronized (COMPILED) {
+            WeakReference<ScoreTable> ref = COMPILED.get(rules);
+            ScoreTable table = ref != null ? ref.get() : null;
+            if (table == null) {
+                table = build(rules);
+                COMPILED.remove(rules); // Keyed by the rules the table holds on to
+                COMPILED.put(rules, new WeakReference<>(table));
+            }
+            return table;
+        }
+    }
+
+    private static ScoreTable build(ScoringRules rules) {
+        short[] scores = new short[CODES];
+        long[] scoring = new long[(CODES + 63) >>> 6];
+        int[] counts = new int[MAX_FACE + 1];
+        for (int code = 0; code < CODES; code++) {
+            int dice = decode(code, counts);
+            if (dice <= MAX_DICE) {
+                int score = rules.score(counts, dice);
+                if (score > Short.MAX_VALUE) {
+                    throw new WrongScoringRules(rules + " scores " + score + " for one roll, at most "
+                            + Short.MAX_VALUE + " is supported");
+                }
+                scores[code] = (short) score;
+                if (rules.hasScoringCombination(counts, dice)) {
+                    scoring[code >>> 6] |= 1L << code;
+                }
+            }
+        }
+        return new ScoreTable(rules, scores, scoring);
+    }
+
+    /**
+     * Returns the code contribution of one dice showing the given side.
+     *
+     * @param face the side, 1 to {@link #MAX_FACE}
+     * @return 7 to the power {@code face - 1}
+     */
+    public static int weight(int face) {
+        return WEIGHTS[face];
+    }
+
+    /**
+     * Computes the count code of a multiset.
+     *
+     * @param faceCounts the number of dice showing each side, indexed by side
+     * @return the count code
+     */
+    public static int encode(int[] faceCounts) {
+        int code = 0;
+        for (int face = 1; face <= MAX_FACE; face++) {
+            code += faceCounts[face] * WEIGHTS[face];
+        }
+        return code;
+    }
+
+    /**
+     * Splits a count code back into the number of dice showing each side.
+     *
+     * @param code       the count code
+     * @param faceCounts the array receiving the counts, indexed by side
+     * @return the number of dice
+     */
+    public static int decode(int code, int[] faceCounts) {
+        int dice = 0;
+        for (int face = 1; face <= MAX_FACE; face++) {
+            faceCounts[face] = code % 7;
+            dice += faceCounts[face];
+            code /= 7;
+        }
+        return dice;
+    }
+
+    /**
+     * Returns the score of a multiset.
+     *
+     * @param code the count code of the dice
+     * @return the score, 0 if the dice do not all score
+     */
+    public int score(int code) {
+        return scores[code];
+    }
+
+    /**
+     * Tells whether a multiset holds any scoring combination.
+     *
+     * @param code the count code of the dice
+     * @return false if the roll is a bust
+     */
+    public boolean hasScoringCombination(int code) {
+        return (scoring[code >>> 6] & (1L << code)) != 0;
+    }
+
+    /**
+     * Returns the rules the table was compiled from, which also score rolls beyond the table.
+     *
+     * @return the rules
+     */
+    public ScoringRules getRules() {
+        return rules;
+    }
+}
@@ -0,0 +1,352 @@
+package services;
+
+import exceptions.WrongScoringRules;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A Farkle rule set: what single dice, sets of a kind and six-dice combinations are worth.
+ *
+ * <p>Rules are plain values. They are never evaluated roll by roll; {@link ScoreTable#compile(ScoringRules)}
+ * turns them into lookup tables once, and {@link ScoreCalculatorService#setRules(ScoringRules)}
+ * makes those tables the active ones.</p>
+ *
+ * <p>Besides the builtin presets, rules can be read from a {@code .properties} file. Every key is
+ * optional and overrides the preset named by {@code base} (the standard rules by default):</p>
+ * <pre>
+ * name=Doubling table
+ * base=standard
+ * single.one=100
+ * single.five=50
+ * triple.one=1000
+ * triple.five=500
+ * triple.multiplier=100     # a triple of another side is worth side * multiplier
+ * ofAKind=doubling          # additive: +extraDie per dice beyond three; doubling: x2 per dice
+ * extraDie=1000
+ * straight=1500             # six-dice combinations, 0 disables one
+ * threePairs=1500
+ * fourOfAKindAndPair=1500
+ * twoTriples=2500
+ * </pre>
+ */
+public final class ScoringRules {
+
+    /**
+     * How dice beyond three of a kind add to the triple.
+     */
+    public enum OfAKind {
+        ADDITIVE, // Every extra dice adds extraDie; sets of 1s and 5s score as triples plus singles
+        DOUBLING  // Every extra dice doubles the value of the triple
+    }
+
+    /**
+     * The rules the game has always used.
+     */
+    public static final ScoringRules STANDARD = new ScoringRules("standard",
+            100, 50, 1000, 500, 100, OfAKind.ADDITIVE, 1000, 1500, 1500, 1500, 2500);
+
+    /**
+     * Common house rules: four of a kind is worth twice the triple, five four times, six eight times.
+     */
+    public static final ScoringRules DOUBLING = new ScoringRules("doubling",
+            100, 50, 1000, 500, 100, OfAKind.DOUBLING, 0, 1500, 1500, 1500, 2500);
+
+    /**
+     * Standard values without the six-dice combinations.
+     */
+    public static final ScoringRules SIMPLE = new ScoringRules("simple",
+            100, 50, 1000, 500, 100, OfAKind.ADDITIVE, 1000, 0, 0, 0, 0);
+
+    private static final Map<String, ScoringRules> PRESETS = Map.of(
+            STANDARD.name, STANDARD,
+            DOUBLING.name, DOUBLING,
+            SIMPLE.name, SIMPLE);
+
+    private static final Set<String> KEYS = Set.of("name", "base", "single.one", "single.five", "triple.one",
+            "triple.five", "triple.multiplier", "ofAKind", "extraDie", "straight", "threePairs",
+            "fourOfAKindAndPair", "twoTriples");
+
+    private final String name; // Shown to players, not part of equality
+    private final int singleOne; // A single 1
+    private final int singleFive; // A single 5
+    private final int tripleOne; // Three 1s
+    private final int tripleFive; // Three 5s
+    private final int tripleMultiplier; // Three of another side score side * multiplier
+    private final OfAKind ofAKind; // How dice beyond a triple count
+    private final int extraDie; // Added per dice beyond a triple when additive
+    private final int straight; // 1 to 6 with six dice
+    private final int threePairs; // Three pairs with six dice
+    private final int fourOfAKindAndPair; // Four of a kind and a pair with six dice
+    private final int twoTriples; // Two triples with six dice
+
+    /**
+     * Creates a rule set. Six-dice combinations worth 0 are disabled.
+     *
+     * @throws WrongScoringRules if a value is negative
+     */
+    public ScoringRules(String name, int singleOne, int singleFive, int tripleOne, int tripleFive,
+                        int tripleMultiplier, OfAKind ofAKind, int extraDie,
+                        int straight, int threePairs, int fourOfAKindAndPair, int twoTriples) {
+        this.name = Objects.requireNonNull(name);
+        this.singleOne = checked("single.one", singleOne);
+        this.singleFive = checked("single.five", singleFive);
+        this.tripleOne = checked("triple.one", tripleOne);
+        this.tripleFive = checked("triple.five", tripleFive);
+        this.tripleMultiplier = checked("triple.multiplier", tripleMultiplier);
+        this.ofAKind = Objects.requireNonNull(ofAKind);
+        this.extraDie = checked("extraDie", extraDie);
+        this.straight = checked("straight", straight);
+        this.threePairs = checked("threePairs", threePairs);
+        this.fourOfAKindAndPair = checked("fourOfAKindAndPair", fourOfAKindAndPair);
+        this.twoTriples = checked("twoTriples", twoTriples);
+    }
+
+    private static int checked(String key, int value) {
+        if (value < 0) {
+            throw new WrongScoringRules("Value of " + key + " cannot be negative");
+        }
+        return value;
+    }
+
+    /**
+     * Returns a builtin rule set by name: standard, doubling or simple.
+     *
+     * @param name the preset name, case-insensitive
+     * @return the preset
+     * @throws WrongScoringRules if there is no such preset
+     */
+    public static ScoringRules preset(String name) {
+        ScoringRules rules = PRESETS.get(name.trim().toLowerCase(Locale.ROOT));
+        if (rules == null) {
+            throw new WrongScoringRules("Unknown scoring rules preset '" + name + "', expected one of " + new TreeSet<>(PRESETS.keySet()));
+        }
+        return rules;
+    }
+
+    /**
+     * Reads a rule set from a properties file.
+     *
+     * @param file the file to read
+     * @return the rules
+     * @throws IOException if the file cannot be read
+     * @throws WrongScoringRules if the file holds an unknown key or an invalid value
+     */
+    public static ScoringRules load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Properties properties = new Properties();
+            properties.load(reader);
+            return fromProperties(properties);
+        }
+    }
+
+    /**
+     * Reads a rule set in properties format from a stream, such as a bundled resource.
+     *
+     * @param in the stream to read
+     * @return the rules
+     * @throws IOException if the stream cannot be read
+     * @throws WrongScoringRules if the stream holds an unknown key or an invalid value
+     */
+    public static ScoringRules load(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new java.io.InputStreamReader(in, StandardCharsets.UTF_8));
+        return fromProperties(properties);
+    }
+
+    /**
+     * Builds a rule set from properties, the keys overriding the preset named by {@code base}.
+     *
+     * @param properties the rule values
+     * @return the rules
+     * @throws WrongScoringRules if there is an unknown key or an invalid value
+     */
+    public static ScoringRules fromProperties(Properties properties) {
+        for (String key : properties.stringPropertyNames()) {
+            if (!KEYS.contains(key)) {
+                throw new WrongScoringRules("Unknown scoring rule '" + key + "'");
+            }
+        }
+        ScoringRules base = preset(properties.getProperty("base", STANDARD.name));
+        String ofAKind = properties.getProperty("ofAKind");
+        OfAKind mode = base.ofAKind;
+        if (ofAKind != null) {
+            try {
+                mode = OfAKind.valueOf(ofAKind.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new WrongScoringRules("ofAKind must be additive or doubling, not '" + ofAKind + "'", e);
+            }
+        }
+        return new ScoringRules(
+                properties.getProperty("name", base.name).trim(),
+                value(properties, "single.one", base.singleOne),
+                value(properties, "single.five", base.singleFive),
+                value(properties, "triple.one", base.tripleOne),
+                value(properties, "triple.five", base.tripleFive),
+                value(properties, "triple.multiplier", base.tripleMultiplier),
+                mode,
+                value(properties, "extraDie", base.extraDie),
+                value(properties, "straight", base.straight),
+                value(properties, "threePairs", base.threePairs),
+                value(properties, "fourOfAKindAndPair", base.fourOfAKindAndPair),
+                value(properties, "twoTriples", base.twoTriples));
+    }
+
+    private static int value(Properties properties, String key, int fallback) {
+        String text = properties.getProperty(key);
+        if (text == null) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            throw new WrongScoringRules("Value of " + key + " must be a whole number, not '" + text + "'", e);
+        }
+    }
+
+    /**
+     * Scores dice given as face counts; every dice must take part in a scoring combination.
+     * Works for counts of any length, so it also covers dice with more than six sides.
+     * Used to fill the lookup tables and for rolls beyond them.
+     *
+     * @param counts the number of dice showing each side, indexed by side
+     * @param dice   the total number of dice
+     * @return the score, 0 if some dice do not score
+     */
+    public int score(int[] counts, int dice) {
+        if (dice == 0) return 0;
+
+        if (dice == 6) {
+            int special = specialScore(counts);
+            if (special > 0) return special;
+        }
+
+        int score = 0;
+        for (int face = 1; face < counts.length; face++) {
+            int c = counts[face];
+            if (c == 0) continue;
+            int single = single(face);
+            int triple = triple(face);
+
+            if (c >= 3 && triple > 0 && ofAKind == OfAKind.DOUBLING) {
+                score += triple << (c - 3);
+            } else if (single > 0) {
+                // Sets of 1s and 5s count as triples plus leftover singles
+                score += (triple > 0 ? triple * (c / 3) + single * (c % 3) : single * c);
+            } else if (c >= 3 && triple > 0) {
+                score += triple * (c / 3) + extraDie * (c - 3);
+            } else {
+                return 0; // Dice left out of any combination
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Tells whether some of the dice score: a single, a set of a kind or, with six dice, a special combination.
+     *
+     * @param counts the number of dice showing each side, indexed by side
+     * @param dice   the total number of dice
+     * @return false if the roll is a bust
+     */
+    public boolean hasScoringCombination(int[] counts, int dice) {
+        if (dice == 0) return false;
+        for (int face = 1; face < counts.length; face++) {
+            int c = counts[face];
+            if (c > 0 && single(face) > 0) return true;
+            if (c >= 3 && triple(face) > 0) return true;
+        }
+        return dice == 6 && specialScore(counts) > 0;
+    }
+
+    private int single(int face) {
+        return face == 1 ? singleOne : face == 5 ? singleFive : 0;
+    }
+
+    private int triple(int face) {
+        return face == 1 ? tripleOne : face == 5 ? tripleFive : face * tripleMultiplier;
+    }
+
+    /**
+     * Scores the combinations only six dice can make, or returns 0.
+     */
+    private int specialScore(int[] counts) {
+        int pairs = 0;
+        int triples = 0;
+        boolean four = false;
+        boolean isStraight = counts.length > 6;
+        for (int face = 1; face < counts.length; face++) {
+            int c = counts[face];
+            if (c == 2) pairs++;
+            if (c == 3) triples++;
+            if (c == 4) four = true;
+            if (face <= 6 && c != 1) isStraight = false;
+        }
+        if (isStraight && straight > 0) return straight;
+        if (pairs == 3 && threePairs > 0) return threePairs;
+        if (four && pairs == 1 && fourOfAKindAndPair > 0) return fourOfAKindAndPair;
+        if (triples == 2 && twoTriples > 0) return twoTriples;
+        return 0;
+    }
+
+    /**
+     * Writes the rules in the properties format read by {@link #fromProperties(Properties)}.
+     *
+     * @return every rule value, keyed as in a rules file
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("name", name);
+        properties.setProperty("single.one", String.valueOf(singleOne));
+        properties.setProperty("single.five", String.valueOf(singleFive));
+        properties.setProperty("triple.one", String.valueOf(tripleOne));
+        properties.setProperty("triple.five", String.valueOf(tripleFive));
+        properties.setProperty("triple.multiplier", String.valueOf(tripleMultiplier));
+        properties.setProperty("ofAKind", ofAKind.name().toLowerCase(Locale.ROOT));
+        properties.setProperty("extraDie", String.valueOf(extraDie));
+        properties.setProperty("straight", String.valueOf(straight));
+        properties.setProperty("threePairs", String.valueOf(threePairs));
+        properties.setProperty("fourOfAKindAndPair", String.valueOf(fourOfAKindAndPair));
+        properties.setProperty("twoTriples", String.valueOf(twoTriples));
+        return properties;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public OfAKind getOfAKind() {
+        return ofAKind;
+    }
+
+    /**
+     * Compares the scoring values, ignoring the display name.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ScoringRules other)) return false;
+        return singleOne == other.singleOne && singleFive == other.singleFive
+                && tripleOne == other.tripleOne && tripleFive == other.tripleFive
+                && tripleMultiplier == other.tripleMultiplier && ofAKind == other.ofAKind
+                && extraDie == other.extraDie && straight == other.straight
+                && threePairs == other.threePairs && fourOfAKindAndPair == other.fourOfAKindAndPair
+                && twoTriples == other.twoTriples;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(singleOne, singleFive, tripleOne, tripleFive, tripleMultiplier, ofAKind,
+                extraDie, straight, threePairs, fourOfAKindAndPair, twoTriples);
+    }
+
+    @Override
+    public String toString() {
+        return "ScoringRules[" + name + "]";
+    }
+}
@@ -0,0 +1,168 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * Singleton compute pool shared by every computer player's search.
+ *
+ * <p>The pool is a {@link ForkJoinPool} with one daemon worker per core but one, left for the
+ * user interface, however many NPCs exist. {@link #evaluate} splits a batch of candidates into
+ * one chunk per worker, and each worker evaluates its chunk in order, so a decision costs a
+ * handful of tasks rather than one future per candidate. A search started from inside the pool,
+ * such as a look-ahead, forks its chunks onto the same workers instead of blocking them.</p>
+ *
+ * <p>The pool is shut down by {@link #shutdown()}, which the application calls on exit, or else
+ * by a shutdown hook. Work handed in afterwards runs on the calling thread.</p>
+ */
+public class SearchExecutor {
+    private static SearchExecutor instance;
+
+    private final ForkJoinPool pool;
+    private final Thread shutdownHook;
+
+    // Private constructor for Singleton pattern
+    private SearchExecutor() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Creates a pool of its own, e.g. for tools and tests; the game shares {@link #getInstance()}.
+     *
+     * @param parallelism the number of workers
+     */
+    public SearchExecutor(int parallelism) {
+        AtomicInteger threads = new AtomicInteger();
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            worker.setName("npc-search-" + threads.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        }, null, false);
+        this.shutdownHook = new Thread(this::shutdownPool, "npc-search-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    public static synchronized SearchExecutor getInstance() {
+        if (instance == null) {
+            instance = new SearchExecutor();
+        }
+        return instance;
+    }
+
+    /**
+     * Evaluates {@code count} candidates in chunks, one chunk per worker.
+     *
+     * @param count   the number of candidates
+     * @param task    evaluates the candidate of an index; called once per index from any worker
+     * @param timeout the time the whole batch may take
+     * @param unit    the unit of the timeout
+     * @param <R>     the result type
+     * @return the results in candidate order, null for candidates that failed or were not reached in time
+     */
+    public <R> List<R> evaluate(int count, IntFunction<R> task, long timeout, TimeUnit unit) {
+        AtomicReferenceArray<R> results = new AtomicReferenceArray<>(count);
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        int chunks = Math.min(count, pool.getParallelism());
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int from = (int) ((long) count * c / chunks);
+            int to = (int) ((long) count * (c + 1) / chunks);
+            tasks.add(ForkJoinTask.adapt(() -> evaluateChunk(from, to, task, results, deadline)));
+        }
+
+        if (ForkJoinTask.getPool() == pool) {
+            ForkJoinTask.invokeAll(tasks); // Already on a worker: fork and help rather than block
+        } else {
+            try {
+                tasks.forEach(pool::execute);
+            } catch (RejectedExecutionException e) {
+                evaluateChunk(0, count, task, results, deadline); // Pool shut down
+                return toList(results);
+            }
+            boolean late = false;
+            for (ForkJoinTask<?> t : tasks) {
+                try {
+                    t.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    late = true;
+                } catch (ExecutionException e) {
+                    System.err.println("[WARN] Search chunk failed: " + e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (late) {
+                System.err.println("[WARN] Search timed out, using the candidates evaluated so far");
+            }
+        }
+        return toList(results);
+    }
+
+    private static <R> void evaluateChunk(int from, int to, IntFunction<R> task, AtomicReferenceArray<R> results,
+                                          long deadline) {
+        for (int i = from; i < to && System.nanoTime() < deadline; i++) {
+            try {
+                results.set(i, task.apply(i));
+            } catch (RuntimeException e) {
+                System.err.println("[WARN] Skipping candidate due to error: " + e.getMessage());
+            }
+        }
+    }
+
+    private static <R> List<R> toList(AtomicReferenceArray<R> results) {
+        List<R> list = new ArrayList<>(results.length());
+        for (int i = 0; i < results.length(); i++) {
+            list.add(results.get(i));
+        }
+        return list;
+    }
+
+    /**
+     * Returns the number of workers.
+     *
+     * @return the parallelism of the pool
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Tells whether the pool has been shut down.
+     *
+     * @return true once {@link #shutdown()} has run
+     */
+    public boolean isShutdown() {
+        return pool.isShutdown();
+    }
+
+    /**
+     * Stops the workers, letting running chunks finish for a moment. Safe to call more than once.
+     */
+    public void shutdown() {
+        shutdownPool();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down, the hook is running
+        }
+    }
+
+    private void shutdownPool() {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package services;
+
+import model.records.dice.Dice;
+import model.records.dice.RiskDice;
+import model.records.enums.DiceEffect;
+
+import java.util.Arrays;
+
+/**
+ * Running score of the dice a player has picked, updated as dice are added and removed.
+ *
+ * <p>The selection is held as face counts together with its {@link ScoreTable} count code, so
+ * adding or removing a dice only adjusts a counter and the code, and the score is a single
+ * lookup in the active rules' table. Selections the table does not cover, with more than six
+ * dice or sides above 6, are scored from the counts by the active rules.</p>
+ *
+ * <p>Dice with {@link DiceEffect#DOUBLE_ON_RISK_NUMBER} that show their risk number double the
+ * score of the whole selection while they are part of it.</p>
+ *
+ * <p>A dice must not be rolled while it is selected, as it is removed by the side it shows.
+ * Like the controllers using it, the class is not thread-safe.</p>
+ */
+public class SelectionScore {
+    private final ScoreCalculatorService scoreService;
+
+    private int[] faceCounts = new int[ScoreTable.MAX_FACE + 1]; // Dice showing each side, indexed by side
+    private int code; // Count code of the dice showing sides 1 to 6
+    private int dice; // Number of dice selected
+    private int beyondTable; // Dice showing a side above ScoreTable.MAX_FACE
+    private int doubling; // Selected dice doubling the score
+
+    public SelectionScore() {
+        this(ScoreCalculatorService.getInstance());
+    }
+
+    public SelectionScore(ScoreCalculatorService scoreService) {
+        this.scoreService = scoreService;
+    }
+
+    /**
+     * Adds a dice to the selection.
+     *
+     * @param picked the dice, showing the side it was picked with
+     * @return true if the dice doubles the selection score
+     */
+    public boolean add(Dice picked) {
+        int side = picked.getCurrentSide();
+        if (side >= faceCounts.length) {
+            faceCounts = Arrays.copyOf(faceCounts, side + 1);
+        }
+        faceCounts[side]++;
+        dice++;
+        if (side > ScoreTable.MAX_FACE) {
+            beyondTable++;
+        } else {
+            code += ScoreTable.weight(side);
+        }
+
+        boolean doubles = doubles(picked);
+        if (doubles) {
+            doubling++;
+        }
+        return doubles;
+    }
+
+    /**
+     * Removes a dice from the selection.
+     *
+     * @param picked a dice added before, still showing the same side
+     * @throws IllegalStateException if no selected dice shows that side
+     */
+    public void remove(Dice picked) {
+        int side = picked.getCurrentSide();
+        if (side >= faceCounts.length || faceCounts[side] == 0) {
+            throw new IllegalStateException("No selected dice shows side " + side);
+        }
+        faceCounts[side]--;
+        dice--;
+        if (side > ScoreTable.MAX_FACE) {
+            beyondTable--;
+        } else {
+            code -= ScoreTable.weight(side);
+        }
+
+        if (doubles(picked)) {
+            doubling--;
+        }
+    }
+
+    /**
+     * Empties the selection.
+     */
+    public void clear() {
+        Arrays.fill(faceCounts, 0);
+        code = 0;
+        dice = 0;
+        beyondTable = 0;
+        doubling = 0;
+    }
+
+    // Compares the side directly, as RoyalDice#riskNumberDropped also shows a message
+    private static boolean doubles(Dice picked) {
+        return picked.getType().getEffect() == DiceEffect.DOUBLE_ON_RISK_NUMBER
+                && picked.getCurrentSide() == ((RiskDice) picked).getRiskNumber();
+    }
+
+    /**
+     * Returns the score of the selection, doubled if it holds a dice showing its risk number.
+     *
+     * @return the score, 0 if some selected dice do not score
+     */
+    public int getScore() {
+        int score = getBaseScore();
+        return doubling > 0 ? score * 2 : score;
+    }
+
+    /**
+     * Returns the score of the selected sides by the active rules, ignoring dice effects.
+     *
+     * @return the score, 0 if some selected dice do not score
+     */
+    public int getBaseScore() {
+        ScoreTable table = scoreService.getScoreTable();
+        if (beyondTable == 0 && dice <= ScoreTable.MAX_DICE) {
+            return table.score(code);
+        }
+        return table.getRules().score(faceCounts, dice);
+    }
+
+    /**
+     * Tells whether every selected dice scores, so the selection may be set aside.
+     *
+     * @return true if the selection is not empty and scores
+     */
+    public boolean isScoring() {
+        return getBaseScore() > 0;
+    }
+
+    /**
+     * Returns the number of selected dice.
+     *
+     * @return the size of the selection
+     */
+    public int size() {
+        return dice;
+    }
+}
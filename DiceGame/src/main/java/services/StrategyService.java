@@ -0,0 +1,164 @@
+package services;
+
+import model.records.dice.Dice;
+import model.records.dice.DiceDeck;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Singleton service solving decks in the background and keeping the {@link StrategyTable}s,
+ * one per deck composition, rule set and goal, for computer players and hints.
+ *
+ * <p>Solved tables are stored as files in the directory named by the {@value #TABLES_PROPERTY}
+ * system property, {@code tables} by default. A deck whose file exists is mapped instead of
+ * solved, so after the first run a table loads in no time and all games share its pages.</p>
+ *
+ * <p>Decks are solved on a pool of daemon workers which the application stops on exit with
+ * {@link #shutdown()}. The {@value #MAX_TABLES} most recently asked tables are kept; older ones
+ * are loaded again from their files when needed.</p>
+ */
+public class StrategyService {
+    public static final String TABLES_PROPERTY = "dice.tables";
+    private static final int MAX_TABLES = 16;
+
+    private static StrategyService instance;
+
+    private final ScoreCalculatorService scoreService = ScoreCalculatorService.getInstance();
+    private final ForkJoinPool executor;
+    private final StrategySolver solver;
+    private final Map<List<Object>, CompletableFuture<StrategyTable>> tables =
+            new LinkedHashMap<>(MAX_TABLES, 0.75f, true); // Access order, eldest evicted
+
+    // Private constructor for Singleton pattern
+    private StrategyService() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), p -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            worker.setName("strategy-solver-" + threads.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        }, null, true);
+        solver = new StrategySolver(executor);
+    }
+
+    public static synchronized StrategyService getInstance() {
+        if (instance == null) {
+            instance = new StrategyService();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the solved table of a deck under the active rules, solving it in the background
+     * first if needed. Decks with the same kinds of dice in the same order share a table.
+     *
+     * @param deck     the deck to solve
+     * @param goal     turn points that are always banked, e.g. the score that wins the game
+     * @param progress receives the fraction done if the deck is solved now, possibly from worker threads
+     * @return the table, once solved
+     */
+    public CompletableFuture<StrategyTable> solve(DiceDeck deck, int goal, DoubleConsumer progress) {
+        return solve(deck.getDeck(), goal, progress);
+    }
+
+    /**
+     * Returns the solved table of the dice of a deck, see {@link #solve(DiceDeck, int, DoubleConsumer)}.
+     *
+     * @param deck     the dice of the deck
+     * @param goal     turn points that are always banked
+     * @param progress receives the fraction done if the deck is solved now, possibly from worker threads
+     * @return the table, once solved
+     */
+    public CompletableFuture<StrategyTable> solve(List<Dice> deck, int goal, DoubleConsumer progress) {
+        List<Dice> dice = List.copyOf(deck);
+        ScoringRules rules = scoreService.getRules();
+        List<Object> key = key(dice, rules, goal);
+        synchronized (tables) {
+            CompletableFuture<StrategyTable> table = tables.get(key);
+            if (table == null) {
+                table = executor.isShutdown()
+                        ? CompletableFuture.failedFuture(new IllegalStateException("Strategy service is shut down"))
+                        : CompletableFuture.supplyAsync(() -> loadOrSolve(dice, rules, goal, progress), executor);
+                tables.put(key, table);
+                if (tables.size() > MAX_TABLES) {
+                    tables.remove(tables.keySet().iterator().next());
+                }
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Returns the table of a deck if it is solved already. Never waits nor starts solving, so it
+     * can be asked on every decision; start solving with {@link #solve(List, int, DoubleConsumer)}.
+     *
+     * @param deck the dice of the deck
+     * @param goal turn points that are always banked
+     * @return the table, or null if it is not asked for, still being solved or failed
+     */
+    public StrategyTable getSolved(List<Dice> deck, int goal) {
+        List<Object> key = key(deck, scoreService.getRules(), goal);
+        CompletableFuture<StrategyTable> table;
+        synchronized (tables) {
+            table = tables.get(key);
+        }
+        return table != null && table.isDone() && !table.isCompletedExceptionally() ? table.join() : null;
+    }
+
+    /**
+     * Stops the solver workers, abandoning decks still being solved. Safe to call more than once.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private StrategyTable loadOrSolve(List<Dice> dice, ScoringRules rules, int goal, DoubleConsumer progress) {
+        Path directory = Path.of(System.getProperty(TABLES_PROPERTY, "tables")); // Read on use, so tests can move it
+        Path file = directory.resolve(StrategyTableFile.fileName(rules, dice, goal));
+        if (Files.isRegularFile(file)) {
+            try {
+                StrategyTable table = StrategyTableFile.map(file, rules, dice, goal);
+                progress.accept(1.0);
+                return table;
+            } catch (IOException e) {
+                System.err.println("Solving again, could not load strategy table: " + e.getMessage());
+            }
+        }
+
+        StrategyTable table = solver.solve(dice, rules, goal, progress);
+        try {
+            Files.createDirectories(directory);
+            StrategyTableFile.write(table, file);
+        } catch (IOException e) {
+            System.err.println("Could not store strategy table: " + e.getMessage());
+        }
+        return table;
+    }
+
+    private static List<Object> key(List<Dice> dice, ScoringRules rules, int goal) {
+        List<Object> key = new ArrayList<>(dice.size() + 2);
+        key.add(rules);
+        key.add(goal);
+        for (Dice d : dice) {
+            key.add(d.getDistribution());
+        }
+        return key;
+    }
+}
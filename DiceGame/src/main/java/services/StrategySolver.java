@@ -0,0 +1,305 @@
+package services;
+
+import model.records.dice.Dice;
+import model.records.dice.DiceDistribution;
+import model.records.dice.PackedRoll;
+
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Computes the expected-value-optimal way to play a turn with a given deck and rule set.
+ *
+ * <p>A turn state is the composition of the dice left to roll and the points collected so far.
+ * From each state the player either banks, or rolls and then picks the keep leading to the best
+ * state, a bust losing the turn. The solver first lists, for every composition, the outcomes of
+ * rolling it with their exact probabilities under each dice's own distribution and, per outcome,
+ * the best score to reach each following composition. Since every keep adds points, a state only
+ * leads to states with more points, so the values are then filled in exactly by sweeping the
+ * points down from the goal, which is value iteration in a single pass.</p>
+ *
+ * <p>Both phases run on the given executor, one task per composition, and report their progress
+ * as a fraction between 0 and 1. The result is an immutable {@link StrategyTable}.</p>
+ */
+public final class StrategySolver {
+    private final Executor executor;
+
+    /**
+     * Creates a solver running on the common fork-join pool.
+     */
+    public StrategySolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a solver running its tasks on the given executor.
+     *
+     * @param executor the executor to spread the work over
+     */
+    public StrategySolver(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Solves a deck in the background.
+     *
+     * @param deck     the dice of the deck
+     * @param rules    the rules to score by
+     * @param goal     turn points that are always banked, e.g. the score that wins the game
+     * @param progress receives the fraction done, possibly from worker threads
+     * @return the table, once solved
+     */
+    public CompletableFuture<StrategyTable> solveAsync(List<Dice> deck, ScoringRules rules, int goal,
+                                                       DoubleConsumer progress) {
+        List<Dice> dice = List.copyOf(deck);
+        return CompletableFuture.supplyAsync(() -> solve(dice, rules, goal, progress), executor);
+    }
+
+    /**
+     * Solves a deck, waiting for the result.
+     *
+     * @param deck     the dice of the deck, at most {@link PackedRoll#MAX_DICE}
+     * @param rules    the rules to score by
+     * @param goal     turn points that are always banked, e.g. the score that wins the game
+     * @param progress receives the fraction done, possibly from worker threads
+     * @return the solved table
+     * @throws IllegalArgumentException if the deck is empty or too large, or the goal is not positive
+     */
+    public StrategyTable solve(List<Dice> deck, ScoringRules rules, int goal, DoubleConsumer progress) {
+        if (deck.isEmpty() || deck.size() > PackedRoll.MAX_DICE) {
+            throw new IllegalArgumentException("Strategies are solved for 1 to " + PackedRoll.MAX_DICE + " dice");
+        }
+        if (goal <= 0) {
+            throw new IllegalArgumentException("Goal must be positive");
+        }
+
+        // Group the deck into kinds of dice rolling the same way
+        List<DiceDistribution> kinds = StrategyTable.kindsOf(deck);
+        int[] deckCounts = StrategyTable.countsOf(deck, kinds);
+        int[] radix = StrategyTable.radix(deckCounts);
+        int compositions = radix[radix.length - 1] * (deckCounts[deckCounts.length - 1] + 1);
+
+        AtomicInteger done = new AtomicInteger();
+        int[] work = {compositions - 1}; // Grows by the number of levels once they are known
+        Runnable step = () -> progress.accept(Math.min(1.0, done.incrementAndGet() / (double) work[0]));
+
+        // Phase 1: the outcomes of rolling every composition
+        Transitions[] transitions = new Transitions[compositions];
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int c = 1; c < compositions; c++) {
+            int composition = c;
+            tasks.add(CompletableFuture.runAsync(() -> {
+                transitions[composition] = new Transitions(composition, kinds, deckCounts, radix, rules);
+                step.run();
+            }, executor));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+
+        int unit = 0;
+        for (int c = 1; c < compositions; c++) {
+            for (int i = 0; i < transitions[c].options; i++) {
+                unit = gcd(unit, transitions[c].optionScore[i]);
+            }
+        }
+        if (unit == 0) unit = goal; // Nothing ever scores
+        int levels = StrategyTable.levels(goal, unit);
+        work[0] = compositions - 1 + levels;
+
+        // Phase 2: values from the highest turn points down
+        int full = compositions - 1;
+        double[] values = new double[compositions * levels];
+        for (int level = levels - 1; level >= 0; level--) {
+            int turnScore = level * unit;
+            values[level] = turnScore; // The empty composition only ever banks
+            tasks.clear();
+            for (int c = 1; c < compositions; c++) {
+                Transitions t = transitions[c];
+                int lvl = level;
+                int u = unit;
+                tasks.add(CompletableFuture.runAsync(() -> t.evaluate(values, levels, lvl, u, full), executor));
+            }
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+            step.run();
+        }
+
+        long[] rolls = new long[(values.length + 63) >>> 6];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] > (i % levels) * unit) {
+                rolls[i >>> 6] |= 1L << i;
+            }
+        }
+        return new StrategyTable(rules, kinds, deckCounts, goal, unit, DoubleBuffer.wrap(values), LongBuffer.wrap(rolls));
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+
+    /**
+     * The outcomes of rolling one composition: their probabilities and, per outcome,
+     * the best score reaching each composition the player may keep rolling with.
+     */
+    static final class Transitions {
+        final int composition;
+        double[] probability = new double[64];
+        int[] firstOption = new int[65]; // Options of outcome o run up to firstOption[o + 1]
+        int[] optionNext = new int[256];
+        int[] optionScore = new int[256];
+        int outcomes;
+        int options;
+
+        // Enumeration state
+        private final List<DiceDistribution> kinds;
+        private final int[] radix;
+        private final ScoringRules rules;
+        private final int[] rolled; // Dice of each kind in this composition
+        private final int[][] faces; // Dice of kind k showing each side in the current outcome
+        private final int[] kept; // Dice showing each side in the current keep
+        private final int[] bestScore; // Best score per next composition, for the current outcome
+        private final int[] touched;
+        private int touchedCount;
+
+        Transitions(int composition, List<DiceDistribution> kinds, int[] deckCounts, int[] radix, ScoringRules rules) {
+            this.composition = composition;
+            this.kinds = kinds;
+            this.radix = radix;
+            this.rules = rules;
+            this.rolled = new int[kinds.size()];
+            int maxSide = ScoreTable.MAX_FACE;
+            for (int k = 0; k < rolled.length; k++) {
+                rolled[k] = composition / radix[k] % (deckCounts[k] + 1);
+                maxSide = Math.max(maxSide, kinds.get(k).maxSide());
+            }
+            this.faces = new int[kinds.size()][maxSide + 1];
+            this.kept = new int[maxSide + 1];
+            int compositions = radix[radix.length - 1] * (deckCounts[deckCounts.length - 1] + 1);
+            this.bestScore = new int[compositions];
+            this.touched = new int[compositions];
+
+            roll(0, 0, rolled[0], 1.0);
+            probability = Arrays.copyOf(probability, outcomes);
+            firstOption = Arrays.copyOf(firstOption, outcomes + 1);
+        }
+
+        /**
+         * Distributes the {@code left} dice of kind {@code k} over its sides from {@code index} on,
+         * weighting each outcome multinomially.
+         */
+        private void roll(int k, int index, int left, double weight) {
+            if (k == rolled.length) {
+                addOutcome(weight);
+                return;
+            }
+            DiceDistribution distribution = kinds.get(k);
+            int side = distribution.sideAt(index);
+            if (index == distribution.size() - 1 || left == 0) {
+                faces[k][side] += left;
+                roll(k + 1, 0, k + 1 < rolled.length ? rolled[k + 1] : 0, weight * Math.pow(distribution.probabilityAt(index), left));
+                faces[k][side] -= left;
+                return;
+            }
+            double p = distribution.probabilityAt(index);
+            double w = weight; // C(left, n) * p^n as n grows
+            for (int n = 0; n <= left; n++) {
+                if (w == 0.0 && n > 0) break;
+                faces[k][side] += n;
+                roll(k, index + 1, left - n, w);
+                faces[k][side] -= n;
+                w = w * p * (left - n) / (n + 1);
+            }
+        }
+
+        private void addOutcome(double weight) {
+            if (weight == 0.0) return;
+            touchedCount = 0;
+            keep(0, 1, 0, composition);
+
+            if (outcomes == probability.length) {
+                probability = Arrays.copyOf(probability, outcomes * 2);
+                firstOption = Arrays.copyOf(firstOption, outcomes * 2 + 1);
+            }
+            if (options + touchedCount > optionNext.length) {
+                int capacity = Math.max(optionNext.length * 2, options + touchedCount);
+                optionNext = Arrays.copyOf(optionNext, capacity);
+                optionScore = Arrays.copyOf(optionScore, capacity);
+            }
+            probability[outcomes] = weight;
+            firstOption[outcomes] = options;
+            for (int i = 0; i < touchedCount; i++) {
+                int next = touched[i];
+                optionNext[options] = next;
+                optionScore[options++] = bestScore[next];
+                bestScore[next] = 0;
+            }
+            firstOption[++outcomes] = options;
+        }
+
+        /**
+         * Returns the chance that the roll holds no keep at all, i.e. busts.
+         */
+        double bustProbability() {
+            double bust = 0.0;
+            for (int o = 0; o < outcomes; o++) {
+                if (firstOption[o] == firstOption[o + 1]) bust += probability[o];
+            }
+            return Math.min(1.0, bust);
+        }
+
+        /**
+         * Walks every keep of the current outcome, kind by kind and side by side.
+         */
+        private void keep(int k, int side, int dice, int left) {
+            if (k == rolled.length) {
+                if (dice == 0) return;
+                int score = rules.score(kept, dice);
+                if (score == 0) return;
+                if (bestScore[left] == 0) touched[touchedCount++] = left;
+                bestScore[left] = Math.max(bestScore[left], score);
+                return;
+            }
+            if (side == faces[k].length) {
+                keep(k + 1, 1, dice, left);
+                return;
+            }
+            int showing = faces[k][side];
+            for (int n = 0; n <= showing; n++) {
+                kept[side] += n;
+                keep(k, side + 1, dice + n, left - n * radix[k]);
+                kept[side] -= n;
+            }
+        }
+
+        /**
+         * Computes the value of this composition at one level of turn points.
+         */
+        void evaluate(double[] values, int levels, int level, int unit, int full) {
+            int turnScore = level * unit;
+            double roll = 0.0;
+            for (int o = 0; o < outcomes; o++) {
+                double best = 0.0; // A bust banks nothing
+                for (int i = firstOption[o]; i < firstOption[o + 1]; i++) {
+                    int score = optionScore[i];
+                    int nextLevel = level + score / unit;
+                    int next = optionNext[i] == 0 ? full : optionNext[i];
+                    double value = nextLevel >= levels ? turnScore + score : values[next * levels + nextLevel];
+                    if (value > best) best = value;
+                }
+                roll += probability[o] * best;
+            }
+            values[composition * levels + level] = Math.max(turnScore, roll);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package services;
+
+import model.records.dice.Dice;
+import model.records.dice.DiceDistribution;
+
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Solved turn values of one deck under one rule set, as computed by {@link StrategySolver}.
+ *
+ * <p>A state of a turn is the part of the deck still to be rolled, its <em>composition</em>
+ * (how many dice of each distribution), together with the points collected so far this turn.
+ * The table holds the expected number of points the turn banks from every state when played
+ * optimally, and whether rolling on beats banking. Both are single array reads. Turn points
+ * at or above the goal are always banked.</p>
+ *
+ * <p>The values are read through buffers, which either wrap the solver's arrays or view a table
+ * file mapped by {@link StrategyTableFile} without copying it. Tables are immutable and can be
+ * shared between threads.</p>
+ */
+public final class StrategyTable {
+    private final ScoringRules rules;
+    private final List<DiceDistribution> kinds; // Distinct distributions of the deck
+    private final int[] deckCounts; // Dice of each kind in the deck
+    private final int[] radix; // Composition index weight of each kind
+    private final int goal; // Turn points at which the turn is always banked
+    private final int unit; // Greatest common divisor of all keep scores
+    private final int levels; // Turn point levels below the goal, one per unit
+    private final DoubleBuffer values; // Expected banked points, [composition * levels + level]
+    private final LongBuffer rolls; // Bit set over the same index, set if rolling on is best
+
+    StrategyTable(ScoringRules rules, List<DiceDistribution> kinds, int[] deckCounts, int goal, int unit,
+                  DoubleBuffer values, LongBuffer rolls) {
+        this.rules = rules;
+        this.kinds = List.copyOf(kinds);
+        this.deckCounts = deckCounts.clone();
+        this.radix = radix(deckCounts);
+        this.goal = goal;
+        this.unit = unit;
+        this.levels = levels(goal, unit);
+        this.values = values;
+        this.rolls = rolls;
+    }
+
+    /**
+     * Lists the distinct distributions of a deck, in order of first appearance.
+     */
+    static List<DiceDistribution> kindsOf(List<Dice> deck) {
+        List<DiceDistribution> kinds = new ArrayList<>();
+        for (Dice d : deck) {
+            if (!kinds.contains(d.getDistribution())) {
+                kinds.add(d.getDistribution());
+            }
+        }
+        return kinds;
+    }
+
+    /**
+     * Counts the dice of each kind in a deck.
+     */
+    static int[] countsOf(List<Dice> deck, List<DiceDistribution> kinds) {
+        int[] counts = new int[kinds.size()];
+        for (Dice d : deck) {
+            counts[kinds.indexOf(d.getDistribution())]++;
+        }
+        return counts;
+    }
+
+    static int[] radix(int[] deckCounts) {
+        int[] radix = new int[deckCounts.length];
+        int weight = 1;
+        for (int k = 0; k < deckCounts.length; k++) {
+            radix[k] = weight;
+            weight *= deckCounts[k] + 1;
+        }
+        return radix;
+    }
+
+    static int levels(int goal, int unit) {
+        return (goal + unit - 1) / unit;
+    }
+
+    /**
+     * Returns the number of compositions, i.e. of parts of the deck including the empty one.
+     *
+     * @return the composition count
+     */
+    public int compositions() {
+        int count = 1;
+        for (int c : deckCounts) {
+            count *= c + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the composition of the full deck, which is rolled again after hot dice.
+     *
+     * @return the index of the full deck
+     */
+    public int fullDeck() {
+        return compositions() - 1;
+    }
+
+    /**
+     * Finds the composition of some dice of the deck.
+     *
+     * @param dice dice of the deck, in any order
+     * @return the composition index, the full deck for no dice, or -1 if the deck holds no such dice
+     */
+    public int compositionOf(List<Dice> dice) {
+        if (dice.isEmpty()) return fullDeck();
+        int[] counts = new int[deckCounts.length];
+        int index = 0;
+        for (Dice d : dice) {
+            int kind = kinds.indexOf(d.getDistribution());
+            if (kind < 0 || ++counts[kind] > deckCounts[kind]) return -1;
+            index += radix[kind];
+        }
+        return index;
+    }
+
+    /**
+     * Returns the expected points the turn banks when played optimally from here.
+     *
+     * @param composition the dice about to be rolled, see {@link #compositionOf(List)}
+     * @param turnScore   the points collected so far this turn
+     * @return the expected banked points
+     */
+    public double value(int composition, int turnScore) {
+        if (turnScore >= goal) return turnScore;
+        return values.get(composition * levels + turnScore / unit);
+    }
+
+    /**
+     * Tells whether rolling the dice beats banking the points collected so far.
+     *
+     * @param composition the dice about to be rolled, see {@link #compositionOf(List)}
+     * @param turnScore   the points collected so far this turn
+     * @return true to roll on, false to bank
+     */
+    public boolean shouldRoll(int composition, int turnScore) {
+        if (turnScore >= goal) return false;
+        int index = composition * levels + turnScore / unit;
+        return (rolls.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Tells whether to roll the remaining dice, taking the points already banked into account:
+     * a turn that reaches {@code scoreToWin} is banked. The answer is optimal for a table whose
+     * goal is the room left, {@code scoreToWin - bankedScore}.
+     *
+     * @param remaining   the dice left to roll, none after hot dice
+     * @param turnScore   the points collected so far this turn
+     * @param bankedScore the points banked in earlier turns
+     * @param scoreToWin  the score that wins the game
+     * @return true to roll on, false to bank
+     */
+    public boolean shouldRoll(List<Dice> remaining, int turnScore, int bankedScore, int scoreToWin) {
+        if (bankedScore + turnScore >= scoreToWin) return false;
+        int composition = compositionOf(remaining);
+        return composition >= 0 && shouldRoll(composition, turnScore);
+    }
+
+    /**
+     * Picks the keep with the highest expected outcome, for hints and computer players.
+     *
+     * @param roll      the rolled dice, all of them from the deck
+     * @param turnScore the points collected this turn before the roll
+     * @return the bitmask of the dice to keep (bit i for the i-th dice), or 0 if the roll is a bust
+     */
+    public int bestKeep(List<Dice> roll, int turnScore) {
+        int size = roll.size();
+        int rolled = compositionOf(roll);
+        if (rolled < 0 || size > Integer.SIZE - 2) return 0;
+
+        int maxSide = 0;
+        for (Dice d : roll) {
+            maxSide = Math.max(maxSide, d.getCurrentSide());
+        }
+        int[] counts = new int[maxSide + 1];
+
+        int best = 0;
+        double bestValue = -1;
+        for (int mask = 1; mask < (1 << size); mask++) {
+            Arrays.fill(counts, 0);
+            int left = rolled;
+            for (int m = mask; m != 0; m &= m - 1) {
+                Dice d = roll.get(Integer.numberOfTrailingZeros(m));
+                counts[d.getCurrentSide()]++;
+                left -= radix[kinds.indexOf(d.getDistribution())];
+            }
+            int score = rules.score(counts, Integer.bitCount(mask));
+            if (score == 0) continue;
+
+            int next = left == 0 ? fullDeck() : left;
+            double value = value(next, turnScore + score);
+            if (value > bestValue) {
+                best = mask;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the expected points of a whole turn played optimally, from the full deck.
+     *
+     * @return the expected banked points per turn
+     */
+    public double expectedTurnValue() {
+        return value(fullDeck(), 0);
+    }
+
+    List<DiceDistribution> kinds() {
+        return kinds;
+    }
+
+    int[] deckCounts() {
+        return deckCounts.clone();
+    }
+
+    int unit() {
+        return unit;
+    }
+
+    DoubleBuffer values() {
+        return values.duplicate();
+    }
+
+    LongBuffer rolls() {
+        return rolls.duplicate();
+    }
+
+    public ScoringRules getRules() {
+        return rules;
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+}
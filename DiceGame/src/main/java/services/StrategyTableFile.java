@@ -0,0 +1,293 @@
+package services;
+
+import model.records.dice.Dice;
+import model.records.dice.DiceDistribution;
+import model.records.dice.DiceType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Binary file format of {@link StrategyTable}s, so that solved tables survive restarts.
+ *
+ * <p>A file is little-endian and laid out as follows:</p>
+ * <pre>
+ * int     magic, "DSTB"
+ * int     format version, {@link #VERSION}
+ * int     identity length n
+ * n bytes identity: goal, rule values, and per kind of dice its count, sides and probabilities
+ * int     rules name length m, followed by m bytes of UTF-8
+ * int     unit, the turn points of one level
+ * int     number of values v
+ * int     number of roll words r
+ *         zero padding up to a multiple of 8 bytes
+ * v x double  expected banked points
+ * r x long    roll decision bits
+ * </pre>
+ *
+ * <p>{@link #map(Path)} maps a file read-only and the table reads its values straight from the
+ * mapping, so loading costs no parsing and no heap copy, and games in other processes share the
+ * pages of the same file. The identity names the file, see {@link #fileName}, and is compared
+ * again when a file is loaded for a deck.</p>
+ */
+public final class StrategyTableFile {
+    public static final int MAGIC = 0x44535442; // "DSTB"
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".dtab";
+
+    private StrategyTableFile() {}
+
+    /**
+     * Returns the file name under which the table of a deck is stored.
+     *
+     * @param rules the rules the table is solved for
+     * @param deck  the dice of the deck
+     * @param goal  the goal the table is solved for
+     * @return a name derived from the identity of the table
+     */
+    public static String fileName(ScoringRules rules, List<Dice> deck, int goal) {
+        List<DiceDistribution> kinds = StrategyTable.kindsOf(deck);
+        CRC32 crc = new CRC32();
+        crc.update(identity(rules, kinds, StrategyTable.countsOf(deck, kinds), goal));
+        return String.format("strategy-%08x%s", crc.getValue(), EXTENSION);
+    }
+
+    /**
+     * Writes a table to a file. The file is written next to its final place and then moved
+     * there, so that a game mapping it never sees it half written.
+     *
+     * @param table the table to write
+     * @param file  the file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(StrategyTable table, Path file) throws IOException {
+        byte[] identity = identity(table.getRules(), table.kinds(), table.deckCounts(), table.getGoal());
+        byte[] name = table.getRules().getName().getBytes(StandardCharsets.UTF_8);
+        DoubleBuffer values = table.values();
+        LongBuffer rolls = table.rolls();
+        int valueCount = values.remaining();
+        int rollCount = rolls.remaining();
+
+        int header = align(4 * 3 + identity.length + 4 + name.length + 4 * 3);
+        ByteBuffer buffer = ByteBuffer.allocate(header + 8 * (valueCount + rollCount)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        buffer.putInt(identity.length).put(identity);
+        buffer.putInt(name.length).put(name);
+        buffer.putInt(table.unit()).putInt(valueCount).putInt(rollCount);
+        buffer.position(header);
+        buffer.asDoubleBuffer().put(values);
+        buffer.position(header + 8 * valueCount);
+        buffer.asLongBuffer().put(rolls);
+        buffer.rewind();
+
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps a table file read-only.
+     *
+     * @param file the file to map
+     * @return a table reading from the mapping
+     * @throws IOException if the file cannot be read or is not a table file of this version
+     */
+    public static StrategyTable map(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // Stays valid after closing
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a strategy table file");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + " has format version " + version + ", expected " + VERSION);
+            }
+            byte[] identity = new byte[buffer.getInt()];
+            buffer.get(identity);
+            byte[] name = new byte[buffer.getInt()];
+            buffer.get(name);
+            int unit = buffer.getInt();
+            int valueCount = buffer.getInt();
+            int rollCount = buffer.getInt();
+            int header = align(buffer.position());
+
+            Identity parsed = Identity.parse(identity, new String(name, StandardCharsets.UTF_8));
+            int levels = StrategyTable.levels(parsed.goal, unit);
+            int compositions = StrategyTable.radix(parsed.deckCounts)[parsed.deckCounts.length - 1]
+                    * (parsed.deckCounts[parsed.deckCounts.length - 1] + 1);
+            if (valueCount != compositions * levels || rollCount != (valueCount + 63) >>> 6
+                    || header + 8L * (valueCount + rollCount) > buffer.capacity()) {
+                throw new IOException(file + " is truncated or inconsistent");
+            }
+
+            DoubleBuffer values = buffer.slice(header, 8 * valueCount)
+                    .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            LongBuffer rolls = buffer.slice(header + 8 * valueCount, 8 * rollCount)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            return new StrategyTable(parsed.rules, parsed.kinds, parsed.deckCounts, parsed.goal, unit, values, rolls);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException(file + " is not a valid strategy table file", e);
+        }
+    }
+
+    /**
+     * Maps the table file of a deck, checking that it was solved for the same rules, deck and goal.
+     *
+     * @param file  the file to map
+     * @param rules the rules the table must be solved for
+     * @param deck  the deck the table must be solved for
+     * @param goal  the goal the table must be solved for
+     * @return a table reading from the mapping, using the given rules object
+     * @throws IOException if the file cannot be read or holds another table
+     */
+    public static StrategyTable map(Path file, ScoringRules rules, List<Dice> deck, int goal) throws IOException {
+        StrategyTable table = map(file);
+        List<DiceDistribution> kinds = StrategyTable.kindsOf(deck);
+        if (!Arrays.equals(identity(rules, kinds, StrategyTable.countsOf(deck, kinds), goal),
+                identity(table.getRules(), table.kinds(), table.deckCounts(), table.getGoal()))) {
+            throw new IOException(file + " holds the table of another deck, rule set or goal");
+        }
+        return new StrategyTable(rules, kinds, table.deckCounts(), goal, table.unit(), table.values(), table.rolls());
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    /**
+     * Encodes what a table is solved for. Rule values are written sorted by key, without the name.
+     */
+    private static byte[] identity(ScoringRules rules, List<DiceDistribution> kinds, int[] deckCounts, int goal) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(goal);
+
+            Properties properties = rules.toProperties();
+            properties.remove("name");
+            StringBuilder text = new StringBuilder();
+            for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+                text.append(key).append('=').append(properties.getProperty(key)).append('\n');
+            }
+            out.writeUTF(text.toString());
+
+            out.writeInt(kinds.size());
+            for (int k = 0; k < kinds.size(); k++) {
+                DiceDistribution distribution = kinds.get(k);
+                out.writeInt(deckCounts[k]);
+                out.writeInt(distribution.size());
+                for (int i = 0; i < distribution.size(); i++) {
+                    out.writeInt(distribution.sideAt(i));
+                    out.writeDouble(distribution.probabilityAt(i));
+                }
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // In-memory streams do not fail
+        }
+    }
+
+    /**
+     * The identity fields read back from a file.
+     */
+    private static final class Identity {
+        int goal;
+        ScoringRules rules;
+        List<DiceDistribution> kinds = new ArrayList<>();
+        int[] deckCounts;
+
+        static Identity parse(byte[] identity, String name) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(identity));
+            Identity parsed = new Identity();
+            parsed.goal = in.readInt();
+
+            Properties properties = new Properties();
+            properties.load(new StringReader(in.readUTF()));
+            properties.setProperty("name", name);
+            parsed.rules = ScoringRules.fromProperties(properties);
+
+            int kindCount = in.readInt();
+            parsed.deckCounts = new int[kindCount];
+            for (int k = 0; k < kindCount; k++) {
+                parsed.deckCounts[k] = in.readInt();
+                Map<Integer, Double> probabilities = new LinkedHashMap<>();
+                int sides = in.readInt();
+                for (int i = 0; i < sides; i++) {
+                    probabilities.put(in.readInt(), in.readDouble());
+                }
+                parsed.kinds.add(DiceDistribution.of(probabilities));
+            }
+            if (kindCount == 0) {
+                throw new IOException("Table file describes an empty deck");
+            }
+            return parsed;
+        }
+    }
+
+    /**
+     * Generates table files ahead of time, e.g. during the build:
+     * {@code StrategyTableFile <directory> <goal> <rules preset or file> <dice type>...}.
+     *
+     * @param args the directory, goal, rules and the dice types of the deck
+     * @throws IOException if the rules cannot be read or the table cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: StrategyTableFile <directory> <goal> <rules preset or file> <dice type>...");
+            return;
+        }
+        Path directory = Path.of(args[0]);
+        int goal = Integer.parseInt(args[1]);
+        Path rulesFile = Path.of(args[2]);
+        ScoringRules rules = Files.isRegularFile(rulesFile) ? ScoringRules.load(rulesFile) : ScoringRules.preset(args[2]);
+        List<Dice> deck = new ArrayList<>();
+        for (int i = 3; i < args.length; i++) {
+            deck.add(DiceType.valueOf(args[i].toUpperCase(Locale.ROOT)).create(1));
+        }
+
+        Files.createDirectories(directory);
+        int[] reported = {-1};
+        StrategyTable table = new StrategySolver().solve(deck, rules, goal, fraction -> {
+            int percent = (int) (fraction * 100);
+            synchronized (reported) {
+                if (percent / 10 > reported[0]) {
+                    reported[0] = percent / 10;
+                    System.out.println("Solving: " + percent + "%");
+                }
+            }
+        });
+        Path file = directory.resolve(fileName(rules, deck, goal));
+        write(table, file);
+        System.out.println("Wrote " + file + ", expected turn value " + Math.round(table.expectedTurnValue()));
+    }
+}
@@ -0,0 +1,152 @@
+package services;
+
+import model.records.dice.Dice;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Singleton service computing the full distribution of the points a turn banks when it is
+ * continued from a given state and then played by a solved {@link StrategyTable}.
+ *
+ * <p>Rolling a composition leads to each of its outcomes with an exact probability; the table
+ * picks the keep of each outcome and then whether to bank. Since every keep adds points, the
+ * distribution of a state is the probability-weighted sum of the distributions of states with
+ * more points, which is a dynamic program over the turn points bounded by the goal. The
+ * distributions are built as {@link TurnHistogram} buckets and memoized per table and state,
+ * so the states visited once are answered by a lookup afterwards.</p>
+ */
+public class TurnDistributionService {
+    private static TurnDistributionService instance;
+
+    // Memo per table; tables that are no longer used drop their memo, so a memo must not refer to its table
+    private final Map<StrategyTable, Memo> memos = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Distributions computed with one table, keyed by composition and turn points.
+     */
+    private static final class Memo {
+        final int[] radix;
+        final StrategySolver.Transitions[] transitions;
+        final Map<Long, double[]> rolled = new HashMap<>();
+
+        Memo(StrategyTable table) {
+            this.radix = StrategyTable.radix(table.deckCounts());
+            this.transitions = new StrategySolver.Transitions[table.compositions()];
+        }
+    }
+
+    // Private constructor for Singleton pattern
+    private TurnDistributionService() {}
+
+    public static synchronized TurnDistributionService getInstance() {
+        if (instance == null) {
+            instance = new TurnDistributionService();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the distribution of the points banked if the remaining dice are rolled now
+     * and the rest of the turn follows the table.
+     *
+     * @param table     the solved table of the deck
+     * @param remaining the dice about to be rolled, none after hot dice
+     * @param turnScore the points collected so far this turn
+     * @return the distribution of the banked points, a bust banking 0
+     * @throws IllegalArgumentException if the dice are not part of the table's deck
+     */
+    public TurnHistogram continueTurn(StrategyTable table, List<Dice> remaining, int turnScore) {
+        int composition = table.compositionOf(remaining);
+        if (composition < 0) {
+            throw new IllegalArgumentException("Dice " + remaining + " are not part of the solved deck");
+        }
+        return continueTurn(table, composition, turnScore);
+    }
+
+    /**
+     * Returns the distribution of the points banked if a composition is rolled now
+     * and the rest of the turn follows the table.
+     *
+     * @param table       the solved table of the deck
+     * @param composition the dice about to be rolled, see {@link StrategyTable#compositionOf(List)}
+     * @param turnScore   the points collected so far this turn, not negative
+     * @return the distribution of the banked points, a bust banking 0
+     * @throws IllegalArgumentException if the composition or the points are out of range
+     */
+    public TurnHistogram continueTurn(StrategyTable table, int composition, int turnScore) {
+        if (composition <= 0 || composition >= table.compositions() || turnScore < 0) {
+            throw new IllegalArgumentException("No turn state for composition " + composition + " at " + turnScore);
+        }
+        Memo memo = memos.computeIfAbsent(table, Memo::new);
+        synchronized (memo) {
+            return new TurnHistogram(rolled(table, memo, composition, turnScore));
+        }
+    }
+
+    /**
+     * The distribution of a state before deciding: banked right away, or rolled on.
+     */
+    private double[] state(StrategyTable table, Memo memo, int composition, int turnScore) {
+        if (!table.shouldRoll(composition, turnScore)) {
+            double[] banked = new double[TurnHistogram.bucketOf(turnScore) + 1];
+            banked[banked.length - 1] = 1.0;
+            return banked;
+        }
+        return rolled(table, memo, composition, turnScore);
+    }
+
+    /**
+     * The distribution of rolling a composition, weighting the state after each outcome's best keep.
+     */
+    private double[] rolled(StrategyTable table, Memo memo, int composition, int turnScore) {
+        long key = ((long) composition << 32) | turnScore;
+        double[] known = memo.rolled.get(key);
+        if (known != null) return known;
+
+        StrategySolver.Transitions t = memo.transitions[composition];
+        if (t == null) {
+            t = new StrategySolver.Transitions(composition, table.kinds(), table.deckCounts(), memo.radix,
+                    table.getRules());
+            memo.transitions[composition] = t;
+        }
+
+        double[] distribution = new double[TurnHistogram.bucketOf(turnScore) + 1];
+        for (int o = 0; o < t.outcomes; o++) {
+            // The keep the table rates best, as the solver chose it
+            int bestNext = -1;
+            int bestScore = 0;
+            double bestValue = 0.0;
+            for (int i = t.firstOption[o]; i < t.firstOption[o + 1]; i++) {
+                int next = t.optionNext[i] == 0 ? table.fullDeck() : t.optionNext[i];
+                double value = table.value(next, turnScore + t.optionScore[i]);
+                if (value > bestValue) {
+                    bestNext = next;
+                    bestScore = t.optionScore[i];
+                    bestValue = value;
+                }
+            }
+            if (bestNext < 0) {
+                distribution[0] += t.probability[o]; // Bust
+            } else {
+                distribution = add(distribution, state(table, memo, bestNext, turnScore + bestScore), t.probability[o]);
+            }
+        }
+        memo.rolled.put(key, distribution);
+        return distribution;
+    }
+
+    private static double[] add(double[] into, double[] from, double weight) {
+        if (from.length > into.length) {
+            into = Arrays.copyOf(into, from.length);
+        }
+        for (int b = 0; b < from.length; b++) {
+            into[b] += weight * from[b];
+        }
+        return into;
+    }
+}
@@ -0,0 +1,110 @@
+package services;
+
+import java.util.Arrays;
+
+/**
+ * Probability distribution of the points a turn banks, in buckets of {@value #BUCKET_POINTS}
+ * points: bucket {@code b} holds the chance of banking from {@code b * BUCKET_POINTS} up to just
+ * below the next bucket. Bucket 0 is mostly the chance of busting.
+ *
+ * <p>The probabilities are kept in a plain {@code double} array without trailing empty buckets,
+ * so a histogram is cheap to store, to draw and to query. Histograms are immutable.</p>
+ */
+public final class TurnHistogram {
+    public static final int BUCKET_POINTS = 50;
+
+    private final double[] probabilities;
+
+    TurnHistogram(double[] probabilities) {
+        int size = probabilities.length;
+        while (size > 1 && probabilities[size - 1] == 0.0) {
+            size--;
+        }
+        this.probabilities = Arrays.copyOf(probabilities, size);
+    }
+
+    /**
+     * Returns the bucket holding a number of points.
+     *
+     * @param points the points, not negative
+     * @return the bucket index
+     */
+    public static int bucketOf(int points) {
+        return points / BUCKET_POINTS;
+    }
+
+    /**
+     * Returns the number of buckets, up to the last one with a chance above zero.
+     *
+     * @return the bucket count
+     */
+    public int size() {
+        return probabilities.length;
+    }
+
+    /**
+     * Returns the chance of banking points in a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the probability, 0 for buckets beyond {@link #size()}
+     */
+    public double probability(int bucket) {
+        return bucket >= 0 && bucket < probabilities.length ? probabilities[bucket] : 0.0;
+    }
+
+    /**
+     * Returns the chance of banking at least the given points, counted by whole buckets.
+     *
+     * @param points the points to reach
+     * @return the probability
+     */
+    public double atLeast(int points) {
+        double sum = 0.0;
+        for (int b = Math.max(0, bucketOf(points)); b < probabilities.length; b++) {
+            sum += probabilities[b];
+        }
+        return Math.min(1.0, sum);
+    }
+
+    /**
+     * Returns the chance of banking less than the given points, counted by whole buckets,
+     * e.g. the chance of ending a turn with less than is collected already.
+     *
+     * @param points the points to reach
+     * @return the probability
+     */
+    public double below(int points) {
+        double sum = 0.0;
+        for (int b = 0; b < Math.min(bucketOf(points), probabilities.length); b++) {
+            sum += probabilities[b];
+        }
+        return Math.min(1.0, sum);
+    }
+
+    /**
+     * Returns the expected points, taking every bucket at its lower bound.
+     *
+     * @return the mean of the buckets
+     */
+    public double mean() {
+        double sum = 0.0;
+        for (int b = 1; b < probabilities.length; b++) {
+            sum += probabilities[b] * b * BUCKET_POINTS;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns a copy of the bucket probabilities.
+     *
+     * @return the probabilities, one per bucket
+     */
+    public double[] toArray() {
+        return probabilities.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "TurnHistogram" + Arrays.toString(probabilities);
+    }
+}
@@ -0,0 +1,43 @@
+package unit_tests;
+
+import model.records.dice.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class BatchRollerTest {
+    private final List<Dice> deck = List.of(new RegularDice(1), new LuckyDice(1), new CursedDice(1), new RoyalDice(1));
+
+    @Test
+    public void vectorAndScalarKernelsAgree() {
+        BatchRoller roller = new BatchRoller(deck);
+        int rolls = 10_001;
+        int[] vector = new int[rolls * deck.size()];
+        int[] scalar = new int[rolls * deck.size()];
+
+        roller.roll(rolls, vector, RandomStreams.create(3));
+        roller.withScalarKernel().roll(rolls, scalar, RandomStreams.create(3));
+
+        Assert.assertArrayEquals(scalar, vector);
+    }
+
+    @Test
+    public void batchReproducesDiceDistributions() {
+        BatchRoller roller = new BatchRoller(deck);
+        int rolls = 1_000_000;
+        byte[] faces = new byte[rolls * deck.size()];
+        roller.roll(rolls, faces, RandomStreams.create(11));
+
+        for (int d = 0; d < deck.size(); d++) {
+            int[] counts = new int[7];
+            for (int r = 0; r < rolls; r++) {
+                counts[faces[r * deck.size() + d]]++;
+            }
+            for (int side = 1; side <= 6; side++) {
+                Assert.assertEquals(deck.get(d).getProbabilities().get(side), (double) counts[side] / rolls, 0.003);
+            }
+        }
+    }
+
+}
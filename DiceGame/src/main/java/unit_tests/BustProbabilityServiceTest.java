@@ -0,0 +1,91 @@
+package unit_tests;
+
+import model.records.dice.*;
+import org.junit.Assert;
+import org.junit.Test;
+import services.BustProbabilityService;
+import services.ScoreCalculatorService;
+import services.ScoringRules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BustProbabilityServiceTest {
+    private final BustProbabilityService bustService = BustProbabilityService.getInstance();
+    private final ScoreCalculatorService scoreService = ScoreCalculatorService.getInstance();
+
+    /**
+     * Sums the probability of every ordered roll of the dice that scores nothing.
+     */
+    private double bruteForce(List<Dice> dice) {
+        List<Dice> roll = new ArrayList<>();
+        for (Dice d : dice) {
+            roll.add(new PolyhedralDice(1, d.getDistribution()));
+        }
+        return bruteForce(dice, roll, 0, 1.0);
+    }
+
+    private double bruteForce(List<Dice> dice, List<Dice> roll, int index, double probability) {
+        if (index == dice.size()) {
+            return scoreService.hasAnyScoringCombination(roll) ? 0.0 : probability;
+        }
+        DiceDistribution distribution = dice.get(index).getDistribution();
+        double bust = 0.0;
+        for (int i = 0; i < distribution.size(); i++) {
+            roll.get(index).setCurrentSide(distribution.sideAt(i));
+            bust += bruteForce(dice, roll, index + 1, probability * distribution.probabilityAt(i));
+        }
+        return bust;
+    }
+
+    @Test
+    public void regularDiceMatchKnownOdds() {
+        List<Dice> dice = new ArrayList<>();
+        double[] expected = {4.0 / 6, 16.0 / 36, 60.0 / 216, 204.0 / 1296, 600.0 / 7776};
+        for (int n = 1; n <= 5; n++) {
+            dice.add(new RegularDice(1));
+            Assert.assertEquals(expected[n - 1], bustService.bustProbability(dice), 1e-12);
+        }
+        dice.add(new RegularDice(1));
+        Assert.assertEquals(bruteForce(dice), bustService.bustProbability(dice), 1e-12);
+        Assert.assertEquals(1.0, bustService.bustProbability(List.of()), 0.0);
+    }
+
+    @Test
+    public void mixedDecksMatchBruteForce() {
+        Dice[] kinds = {new RegularDice(1), new LuckyDice(1), new CursedDice(1), new RoyalDice(1), new PolyhedralDice(1, 8)};
+        List<Dice> dice = new ArrayList<>();
+        for (int n = 0; n < 6; n++) {
+            dice.add(kinds[n % kinds.length]);
+            Assert.assertEquals(dice.toString(), bruteForce(dice), bustService.bustProbability(dice), 1e-12);
+        }
+
+        // Royal dice roll like regular ones, so they share the composition entry
+        List<Dice> royal = List.of(new RoyalDice(2), new LuckyDice(3));
+        List<Dice> regular = List.of(new LuckyDice(4), new RegularDice(5));
+        Assert.assertEquals(bustService.bustProbability(royal), bustService.bustProbability(regular), 0.0);
+    }
+
+    @Test
+    public void warmedUpDeckFollowsRules() {
+        List<Dice> deck = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            deck.add(new RegularDice(1));
+        }
+        deck.add(new LuckyDice(1));
+        deck.add(new CursedDice(1));
+        bustService.warmUp(new DiceDeck(deck));
+
+        List<Dice> pairs = deck.subList(0, 6);
+        double standard = bustService.bustProbability(pairs);
+        try {
+            scoreService.setRules(ScoringRules.SIMPLE);
+            double simple = bustService.bustProbability(pairs);
+            Assert.assertTrue(simple > standard);
+            Assert.assertEquals(bruteForce(pairs), simple, 1e-12);
+        } finally {
+            scoreService.setRules(ScoringRules.STANDARD);
+        }
+        Assert.assertEquals(standard, bustService.bustProbability(pairs), 0.0);
+    }
+}
@@ -2,14 +2,22 @@ package unit_tests;
 
 import exceptions.WrongProbavilitiesSetUp;
 import model.records.dice.*;
+import model.records.enums.DiceEffect;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.ref.WeakReference;
+import java.util.Base64;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class DiceTest {
@@ -124,4 +132,250 @@ public class DiceTest {
 
     }
 
+    @Test
+    public void aliasSamplerMatchesDeclaredProbabilities() {
+        for (Dice d : new Dice[]{new RegularDice(1), new LuckyDice(1), new CursedDice(1)}) {
+            AliasSampler sampler = d.getSampler();
+            for (Map.Entry<Integer, Double> entry : d.getProbabilities().entrySet()) {
+                Assert.assertEquals(entry.getValue(), sampler.probability(entry.getKey()), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void aliasRollAgreesWithCumulativeRoll() {
+        LuckyDice alias = new LuckyDice(1);
+        LuckyDice cumulative = new LuckyDice(1);
+        int rolls = 200_000;
+        int[] aliasCounts = new int[7];
+        int[] cumulativeCounts = new int[7];
+        for (int i = 0; i < rolls; i++) {
+            alias.roll();
+            cumulative.rollCumulative();
+            aliasCounts[alias.getCurrentSide()]++;
+            cumulativeCounts[cumulative.getCurrentSide()]++;
+        }
+        for (int side = 1; side <= 6; side++) {
+            Assert.assertEquals((double) cumulativeCounts[side] / rolls, (double) aliasCounts[side] / rolls, 0.01);
+        }
+    }
+
+    @Test
+    public void distributionIsSharedBetweenDiceOfOneKind() throws Exception {
+        LuckyDice first = new LuckyDice(1);
+        LuckyDice second = new LuckyDice(2);
+        Assert.assertSame(first.getDistribution(), second.getDistribution());
+        Assert.assertSame(DiceDistribution.STANDARD, dice.getDistribution());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(first);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Dice copy = (Dice) in.readObject();
+            Assert.assertSame(first.getDistribution(), copy.getDistribution());
+        }
+    }
+
+    @Test
+    public void unusedCustomDistributionsAreNotPinned() throws Exception {
+        Map<Integer, Double> custom = Map.of(1, 0.125, 2, 0.875);
+        DiceDistribution live = DiceDistribution.of(custom);
+        Assert.assertSame(live, DiceDistribution.of(new HashMap<>(custom)));
+
+        WeakReference<DiceDistribution> dropped = new WeakReference<>(DiceDistribution.of(Map.of(1, 0.375, 2, 0.625)));
+        for (int i = 0; i < 50 && dropped.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(dropped.get());
+        Assert.assertSame(live, DiceDistribution.of(custom));
+    }
+
+    @Test
+    public void seededDecksRollIdentically() {
+        DiceDeck first = new DiceDeck(new ArrayList<>(List.of(new RegularDice(1), new LuckyDice(1), new CursedDice(1))));
+        DiceDeck second = new DiceDeck(new ArrayList<>(List.of(new RegularDice(1), new LuckyDice(1), new CursedDice(1))));
+        first.setRandom(RandomStreams.create(42));
+        second.setRandom(RandomStreams.create(42));
+
+        for (int i = 0; i < 100; i++) {
+            first.roll();
+            second.roll();
+            for (int j = 0; j < 3; j++) {
+                Assert.assertEquals(first.getDeck().get(j).getCurrentSide(), second.getDeck().get(j).getCurrentSide());
+            }
+        }
+    }
+
+    @Test
+    public void bulkRollLeavesDiceUntouched() {
+        DiceDeck diceDeck = new DiceDeck(new ArrayList<>(List.of(new RegularDice(4), new LuckyDice(4), new CursedDice(4))));
+        diceDeck.setRandom(RandomStreams.create(7));
+        int[] faces = new int[6];
+        int[] counts = new int[7];
+
+        Assert.assertEquals(3, diceDeck.rollInto(faces));
+        Assert.assertEquals(3, diceDeck.rollCounts(counts));
+        int total = 0;
+        for (int side = 1; side <= 6; side++) {
+            total += counts[side];
+        }
+        Assert.assertEquals(3, total);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(faces[i] >= 1 && faces[i] <= 6);
+            Assert.assertEquals(4, diceDeck.getDeck().get(i).getCurrentSide());
+        }
+        Assert.assertThrows(IllegalArgumentException.class, () -> diceDeck.rollInto(new int[2]));
+    }
+
+    @Test
+    public void packedRollRoundTrip() {
+        List<Dice> roll = List.of(new RegularDice(5), new LuckyDice(1), new CursedDice(5), new RoyalDice(3));
+        long packed = PackedRoll.of(roll);
+
+        Assert.assertEquals(4, PackedRoll.size(packed));
+        Assert.assertEquals(PackedRoll.TYPE_ROYAL, PackedRoll.type(packed, 3));
+        Assert.assertEquals(0b101, PackedRoll.slotsShowing(packed, 5));
+
+        int[] counts = new int[PackedRoll.MAX_SIDE + 1];
+        PackedRoll.faceCounts(packed, counts);
+        Assert.assertEquals(2, counts[5]);
+
+        long rest = PackedRoll.remove(packed, 0b101);
+        Assert.assertEquals(2, PackedRoll.size(rest));
+        Assert.assertEquals(1, PackedRoll.face(rest, 0));
+        Assert.assertEquals(3, PackedRoll.face(rest, 1));
+
+        List<Dice> back = PackedRoll.toDice(packed);
+        Assert.assertTrue(back.get(1) instanceof LuckyDice);
+        Assert.assertEquals(packed, PackedRoll.of(back));
+        Assert.assertEquals(PackedRoll.sorted(packed), PackedRoll.sorted(PackedRoll.of(List.of(roll.get(3), roll.get(2), roll.get(1), roll.get(0)))));
+    }
+
+    @Test
+    public void polyhedralDiceRollTheirOwnSides() {
+        PolyhedralDice d20 = new PolyhedralDice(1, 20);
+        Assert.assertEquals(20, d20.getSides());
+        Assert.assertSame(d20.getDistribution(), new PolyhedralDice(4, 20).getDistribution());
+        Assert.assertSame(DiceDistribution.STANDARD, DiceDistribution.uniform(6));
+
+        boolean[] seen = new boolean[21];
+        for (int i = 0; i < 10_000; i++) {
+            d20.roll();
+            Assert.assertTrue(d20.getCurrentSide() >= 1 && d20.getCurrentSide() <= 20);
+            seen[d20.getCurrentSide()] = true;
+        }
+        for (int side = 1; side <= 20; side++) {
+            Assert.assertTrue(seen[side]);
+        }
+
+        DiceDistribution loaded = DiceDistribution.weighted(1, 1, 2);
+        Assert.assertEquals(0.5, loaded.getSampler().probability(3), 1e-9);
+        Assert.assertEquals("/img/dice_d20/d20_7.png", new PolyhedralDice(7, 20).returnImageName());
+    }
+
+    @Test
+    public void diceTypeRegistryEncodesDecks() {
+        for (DiceType type : DiceType.values()) {
+            Assert.assertSame(type, DiceType.byId(type.getId()));
+        }
+        Assert.assertEquals(3, DiceType.ROYAL.getId());
+        Assert.assertEquals(DiceEffect.DOUBLE_ON_RISK_NUMBER, new RoyalDice(1).getType().getEffect());
+        Assert.assertEquals(DiceEffect.NONE, new RiskDice(1).getType().getEffect());
+        Assert.assertEquals(200, new RoyalDice(1).getPrice());
+        Assert.assertSame(DiceType.CURSED.getDistribution(), new CursedDice(1).getDistribution());
+
+        DiceDeck deck = new DiceDeck(new ArrayList<>(List.of(new RegularDice(2), new LuckyDice(3), new CursedDice(4), new RoyalDice(5), new RiskDice(6))));
+        byte[] ids = deck.toTypeIds();
+        Assert.assertArrayEquals(new byte[]{0, 1, 2, 3, 4}, ids);
+        DiceDeck restored = DiceDeck.fromTypeIds(ids);
+        for (int i = 0; i < ids.length; i++) {
+            Assert.assertEquals(deck.getDeck().get(i).getClass(), restored.getDeck().get(i).getClass());
+        }
+        Assert.assertEquals(deck.getBalance(), restored.getBalance());
+
+        deck.addDice(new PolyhedralDice(1, 20));
+        Assert.assertFalse(deck.isEncodableAsTypeIds());
+        Assert.assertThrows(IllegalArgumentException.class, deck::toTypeIds);
+        Assert.assertThrows(IllegalArgumentException.class, () -> DiceType.byId(99));
+    }
+
+    @Test
+    public void diceStayEqualToThemselvesAcrossRolls() {
+        Map<Dice, String> views = new HashMap<>();
+        views.put(dice, "view");
+        int hash = dice.hashCode();
+        dice.setCurrentSide(dice.getCurrentSide() % 6 + 1);
+        Assert.assertEquals(hash, dice.hashCode());
+        Assert.assertEquals("view", views.get(dice));
+        Assert.assertEquals(dice.getId() + 1, dice2.getId());
+        Assert.assertNotEquals(dice, dice2);
+    }
+
+    // A deck of regular, lucky, cursed, royal and risk dice showing 1 to 6, saved by the first release
+    private static final String BASELINE_DECK = """
+            rO0ABXNyABttb2RlbC5yZWNvcmRzLmRpY2UuRGljZURlY2sAAAAAAAAAAQIAAkkAB2JhbGFuY2VM
+            AARkZWNrdAAQTGphdmEvdXRpbC9MaXN0O3hwAAAAAHNyABNqYXZhLnV0aWwuQXJyYXlMaXN0eIHS
+            HZnHYZ0DAAFJAARzaXpleHAAAAAGdwQAAAAGc3IAHm1vZGVsLnJlY29yZHMuZGljZS5SZWd1bGFy
+            RGljZUsqnhF5RlOpAgAAeHIAF21vZGVsLnJlY29yZHMuZGljZS5EaWNlAAAAAAAAAAECAApJAAdi
+            YWxhbmNlWgAJY2hlYXRhYmxlSQALY3VycmVudFNpZGVKAAJpZEkABXByaWNlTAAEaW5mb3QAEkxq
+            YXZhL2xhbmcvU3RyaW5nO0wABG5hbWVxAH4AB0wADXByb2JhYmlsaXRpZXN0AA9MamF2YS91dGls
+            L01hcDtMAAZyYW5kb210ABJMamF2YS91dGlsL1JhbmRvbTtMAARza2ludAAZTG1vZGVsL3JlY29y
+            ZHMvZGljZS9Ta2luO3hwAAAAAAAAAAABjk5pFKImjYwAAAAAdAAtQSBjbGFzc2ljLCBmYWlyIGRp
+            ZSBmb3IgdHJhZGl0aW9uYWwgZ2FtZXBsYXkudAALUmVndWxhckRpY2VzcgARamF2YS51dGlsLkhh
+            c2hNYXAFB9rBwxZg0QMAAkYACmxvYWRGYWN0b3JJAAl0aHJlc2hvbGR4cD9AAAAAAAAGdwgAAAAI
+            AAAABnNyABFqYXZhLmxhbmcuSW50ZWdlchLioKT3gYc4AgABSQAFdmFsdWV4cgAQamF2YS5sYW5n
+            Lk51bWJlcoaslR0LlOCLAgAAeHAAAAABc3IAEGphdmEubGFuZy5Eb3VibGWAs8JKKWv7BAIAAUQA
+            BXZhbHVleHEAfgARP8VVVVVVVVVzcQB+ABAAAAACc3EAfgATP8VVVVVVVVVzcQB+ABAAAAADc3EA
+            fgATP8VVVVVVVVVzcQB+ABAAAAAEc3EAfgATP8VVVVVVVVVzcQB+ABAAAAAFc3EAfgATP8VVVVVV
+            VVVzcQB+ABAAAAAGc3EAfgATP8VVVVVVVVV4c3IAEGphdmEudXRpbC5SYW5kb202MpY0S/AKUwMA
+            A1oAFGhhdmVOZXh0TmV4dEdhdXNzaWFuRAAQbmV4dE5leHRHYXVzc2lhbkoABHNlZWR4cAAAAAAA
+            AAAAAAAAmQdo3ju8eHBzcgAcbW9kZWwucmVjb3Jkcy5kaWNlLkx1Y2t5RGljZTYw5nouKegiAgAA
+            eHEAfgAG/////wAAAAACkW9pTgmXyJgAAAAUdABURmF2b3JzIGZvcnR1bmUsIGxhbmRpbmcgb24g
+            MSBvciA1IG1vcmUgb2Z0ZW7igJRidXQgYXQgYSBzbWFsbCBjb3N0ICgtMSkgZm9yIGJhbGFuY2Uu
+            dAAJTHVja3lEaWNlc3EAfgAOP0AAAAAAAAZ3CAAAAAgAAAAGcQB+ABJzcQB+ABM/0zMzMzMzM3EA
+            fgAVc3EAfgATP7mZmZmZmZpxAH4AF3NxAH4AEz+5mZmZmZmacQB+ABlzcQB+ABM/uZmZmZmZmnEA
+            fgAbc3EAfgATP9MzMzMzMzNxAH4AHXNxAH4AEz+5mZmZmZmaeHNxAH4AHwAAAAAAAAAAAAAAyOFW
+            thgHeHBzcgAdbW9kZWwucmVjb3Jkcy5kaWNlLkN1cnNlZERpY2VeuJ0xQXEtYAIAAHhxAH4ABgAA
+            AAIAAAAAA5289oVRZpwwAAAACnQAY0Egc2luaXN0ZXIgZGllIHRoYXQgYXZvaWRzIGV4dHJlbWVz
+            LCBtYWtpbmcgMXMgYW5kIDVzIHJhcmUgYnV0IHJld2FyZGluZyB3aXRoIGEgKzIgYm9udXMgdG8g
+            YmFsYW5jZXQACkN1cnNlZERpY2VzcQB+AA4/QAAAAAAABncIAAAACAAAAAZxAH4AEnNxAH4AEz+5
+            mZmZmZmacQB+ABVzcQB+ABM/yZmZmZmZmnEAfgAXc3EAfgATP8mZmZmZmZpxAH4AGXNxAH4AEz/J
+            mZmZmZmacQB+ABtzcQB+ABM/uZmZmZmZmnEAfgAdc3EAfgATP8mZmZmZmZp4c3EAfgAfAAAAAAAA
+            AAAAAAD+bdeziQB4cHNyABxtb2RlbC5yZWNvcmRzLmRpY2UuUm95YWxEaWNlVEnhQQTJxrwCAAB4
+            cgAbbW9kZWwucmVjb3Jkcy5kaWNlLlJpc2tEaWNlIlMZ5Xx8E2UCAAFJAApyaXNrTnVtYmVyeHEA
+            fgAG/////wAAAAAEloJbQ0zmzp4AAADIdACCQSByZWdhbCBkaWUgd2l0aCBhIGRhbmdlcm91cyBw
+            b3dlcuKAlHJvbGxpbmcgYSAxIGdyYW50cyBkb3VibGUgcG9pbnRzLCBidXQgaXRzIHVucHJlZGlj
+            dGFiaWxpdHkgY29tZXMgd2l0aCBhIC0xIGJhbGFuY2UgcGVuYWx0eS4KCnQACVJveWFsRGljZXNx
+            AH4ADj9AAAAAAAAGdwgAAAAIAAAABnEAfgAScQB+ABRxAH4AFXEAfgAWcQB+ABdxAH4AGHEAfgAZ
+            cQB+ABpxAH4AG3EAfgAccQB+AB1xAH4AHnhzcQB+AB8AAAAAAAAAAAAAAN2/+QCvTXhwAAAAAXNx
+            AH4AOgAAAAAAAAAABZZia+L52DDXAAAAAHQAAHQABERpY2VzcQB+AA4/QAAAAAAABncIAAAACAAA
+            AAZxAH4AEnEAfgAUcQB+ABVxAH4AFnEAfgAXcQB+ABhxAH4AGXEAfgAacQB+ABtxAH4AHHEAfgAd
+            cQB+AB54c3EAfgAfAAAAAAAAAAAAAACIiW61Sr54cAAAAABzcQB+AAUAAAAAAAAAAAaIEiEImgnW
+            ZQAAAABxAH4ADHEAfgANc3EAfgAOP0AAAAAAAAZ3CAAAAAgAAAAGcQB+ABJxAH4AFHEAfgAVcQB+
+            ABZxAH4AF3EAfgAYcQB+ABlxAH4AGnEAfgAbcQB+ABxxAH4AHXEAfgAeeHNxAH4AHwAAAAAAAAAA
+            AAAAS6uPFu5PeHB4
+            """;
+
+    @Test
+    public void decksSavedByTheFirstReleaseStillLoad() throws Exception {
+        byte[] bytes = Base64.getMimeDecoder().decode(BASELINE_DECK);
+        DiceDeck deck;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            deck = (DiceDeck) in.readObject();
+        }
+
+        List<Class<?>> types = List.of(RegularDice.class, LuckyDice.class, CursedDice.class, RoyalDice.class,
+                RiskDice.class, RegularDice.class);
+        Assert.assertEquals(types.size(), deck.getDeck().size());
+        for (int i = 0; i < types.size(); i++) {
+            Dice loaded = deck.getDeck().get(i);
+            Assert.assertEquals(types.get(i), loaded.getClass());
+            Assert.assertEquals(i + 1, loaded.getCurrentSide());
+        }
+        Assert.assertSame(DiceType.LUCKY.getDistribution(), deck.getDeck().get(1).getDistribution());
+        Assert.assertSame(DiceType.CURSED.getDistribution(), deck.getDeck().get(2).getDistribution());
+        deck.roll();
+    }
 }
@@ -0,0 +1,208 @@
+package unit_tests;
+
+import model.records.dice.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Statistical conformance suite for dice samplers.
+ *
+ * <p>Every dice type is rolled {@code dice.conformance.rolls} times (10<sup>8</sup> by default),
+ * split over one worker per core, each drawing from its own stream split off a seeded root.
+ * The observed frequencies are checked against the declared probabilities with a chi-square
+ * test and a Kolmogorov-Smirnov test on the cumulative distribution, both at a significance
+ * level of {@value #ALPHA}. Sampler throughput is measured by the benchmarks module, not here.</p>
+ *
+ * <p>Any sampler can be checked by passing a {@link Sampler} to {@link #conforms}.</p>
+ */
+public class DistributionConformanceTest {
+    private static final long ROLLS = Long.getLong("dice.conformance.rolls", 100_000_000L);
+    private static final double ALPHA = 1e-6;
+    private static final double Z_ALPHA = 4.753424; // Upper 1e-6 quantile of the standard normal distribution
+
+    /**
+     * A way of rolling dice, fed one worker's share of the rolls.
+     */
+    @FunctionalInterface
+    public interface Sampler {
+        /**
+         * Rolls {@code rolls} times and adds every side rolled to {@code counts}.
+         *
+         * @param dice   creates a fresh dice of the type under test
+         * @param random the worker's own random stream
+         * @param rolls  the number of rolls
+         * @param counts the counts, indexed by side
+         */
+        void roll(Supplier<Dice> dice, RandomGenerator random, long rolls, long[] counts);
+    }
+
+    // Dice.roll(RandomGenerator), the alias table
+    private static final Sampler ALIAS = (dice, random, rolls, counts) -> {
+        Dice d = dice.get();
+        for (long r = 0; r < rolls; r++) {
+            d.roll(random);
+            counts[d.getCurrentSide()]++;
+        }
+    };
+
+    // Reference cumulative sampler
+    private static final Sampler CUMULATIVE = (dice, random, rolls, counts) -> {
+        Dice d = dice.get();
+        for (long r = 0; r < rolls; r++) {
+            d.rollCumulative(random);
+            counts[d.getCurrentSide()]++;
+        }
+    };
+
+    // Batched kernel, vectorized where available
+    private static final Sampler BATCH = (dice, random, rolls, counts) -> {
+        BatchRoller roller = new BatchRoller(List.of(dice.get()));
+        int[] faces = new int[1 << 16];
+        for (long done = 0; done < rolls; ) {
+            int n = (int) Math.min(faces.length, rolls - done);
+            roller.roll(n, faces, random);
+            for (int i = 0; i < n; i++) {
+                counts[faces[i]]++;
+            }
+            done += n;
+        }
+    };
+
+    private static final List<Supplier<Dice>> TYPES = List.of(
+            () -> new RegularDice(1),
+            () -> new LuckyDice(1),
+            () -> new CursedDice(1),
+            () -> new RoyalDice(1),
+            () -> new RiskDice(1),
+            () -> new PolyhedralDice(1, 20),
+            () -> new PolyhedralDice(1, DiceDistribution.weighted(5, 0, 1, 1, 1, 0.25, 2, 1)));
+
+    @Test
+    public void aliasSamplerConforms() throws Exception {
+        for (Supplier<Dice> type : TYPES) {
+            Assert.assertTrue("Dice.roll() " + name(type), conforms(ALIAS, type, ROLLS, 17));
+        }
+    }
+
+    @Test
+    public void batchRollerConforms() throws Exception {
+        for (Supplier<Dice> type : TYPES) {
+            Assert.assertTrue("BatchRoller " + name(type), conforms(BATCH, type, ROLLS, 23));
+        }
+    }
+
+    @Test
+    public void cumulativeSamplerConforms() throws Exception {
+        // The reference implementation only needs a smaller sample
+        for (Supplier<Dice> type : TYPES) {
+            Assert.assertTrue("Dice.rollCumulative() " + name(type), conforms(CUMULATIVE, type, ROLLS / 10, 29));
+        }
+    }
+
+    @Test
+    public void skewedSamplerIsRejected() throws Exception {
+        // Turns one six in 50 into a one, the kind of drift a broken table would cause
+        Sampler skewed = (dice, random, rolls, counts) -> {
+            Dice d = dice.get();
+            for (long r = 0; r < rolls; r++) {
+                d.roll(random);
+                int side = d.getCurrentSide();
+                counts[side == 6 && random.nextInt(50) == 0 ? 1 : side]++;
+            }
+        };
+        Assert.assertFalse(conforms(skewed, () -> new LuckyDice(1), 10_000_000L, 31));
+    }
+
+    /**
+     * Rolls a dice type in parallel and tests the observed frequencies against its declared probabilities.
+     *
+     * @param sampler the sampler under test
+     * @param type    creates dice of the type under test
+     * @param rolls   the total number of rolls
+     * @param seed    the seed of the root random stream
+     * @return true if neither the chi-square nor the Kolmogorov-Smirnov test rejects the sample
+     * @throws Exception if a worker fails
+     */
+    public static boolean conforms(Sampler sampler, Supplier<Dice> type, long rolls, long seed) throws Exception {
+        DiceDistribution distribution = type.get().getDistribution();
+        int maxSide = distribution.maxSide();
+        int workers = Runtime.getRuntime().availableProcessors();
+
+        // Streams are split on this thread so the result does not depend on scheduling
+        RandomGenerator.SplittableGenerator root = RandomStreams.create(seed);
+        List<RandomGenerator> streams = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            streams.add(root.split());
+        }
+
+        long[] counts = new long[maxSide + 1];
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<long[]>> results = new ArrayList<>(workers);
+            for (int w = 0; w < workers; w++) {
+                RandomGenerator random = streams.get(w);
+                long share = rolls / workers + (w < rolls % workers ? 1 : 0);
+                results.add(executor.submit(() -> {
+                    long[] local = new long[maxSide + 1];
+                    sampler.roll(type, random, share, local);
+                    return local;
+                }));
+            }
+            for (Future<long[]> result : results) {
+                long[] local = result.get();
+                for (int side = 0; side <= maxSide; side++) {
+                    counts[side] += local[side];
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        double chiSquare = 0.0;
+        int freedom = -1;
+        boolean impossibleSideRolled = counts[0] != 0;
+        double ks = 0.0;
+        double expectedCdf = 0.0;
+        long observedCdf = 0;
+        for (int side = 1; side <= maxSide; side++) {
+            double p = distribution.probability(side);
+            if (p == 0.0) {
+                impossibleSideRolled |= counts[side] != 0;
+            } else {
+                double expected = p * rolls;
+                double diff = counts[side] - expected;
+                chiSquare += diff * diff / expected;
+                freedom++;
+            }
+            expectedCdf += p;
+            observedCdf += counts[side];
+            ks = Math.max(ks, Math.abs((double) observedCdf / rolls - expectedCdf));
+        }
+
+        double chiCritical = freedom > 0 ? chiSquareCritical(freedom) : 0.0;
+        double ksCritical = Math.sqrt(-0.5 * Math.log(ALPHA / 2) / rolls);
+        return !impossibleSideRolled && chiSquare <= chiCritical && ks <= ksCritical;
+    }
+
+    private static String name(Supplier<Dice> type) {
+        Dice dice = type.get();
+        return dice.getClass().getSimpleName() + " d" + dice.getDistribution().maxSide();
+    }
+
+    /**
+     * Upper critical value of the chi-square distribution, by the Wilson-Hilferty approximation.
+     */
+    private static double chiSquareCritical(int freedom) {
+        double a = 2.0 / (9.0 * freedom);
+        double cube = 1.0 - a + Z_ALPHA * Math.sqrt(a);
+        return freedom * cube * cube * cube;
+    }
+}
@@ -0,0 +1,75 @@
+package unit_tests;
+
+import model.records.dice.Dice;
+import model.records.dice.RandomStreams;
+import model.records.dice.RegularDice;
+import model.records.npc.ExpectimaxBrain;
+import model.records.npc.NpcBrain;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import services.StrategyService;
+import services.StrategyTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+public class ExpectimaxBrainTest {
+    private static final int GOAL = 1000;
+
+    private final List<Dice> deck = List.of(new RegularDice(1), new RegularDice(1), new RegularDice(1));
+    private final List<Dice> roll = List.of(new RegularDice(5), new RegularDice(2));
+    private final NpcBrain brain = new ExpectimaxBrain(1);
+
+    @BeforeClass
+    public static void storeTablesInTempFolder() throws IOException {
+        System.setProperty(StrategyService.TABLES_PROPERTY, Files.createTempDirectory("dice-tables").toString());
+    }
+
+    private NpcBrain.Move decide(int turnScore, int bankedScore, int difficulty) {
+        NpcBrain.Situation situation = new NpcBrain.Situation(roll, deck, turnScore, bankedScore, GOAL, difficulty);
+        return brain.decide(situation, RandomStreams.create(1));
+    }
+
+    @Test
+    public void hardestPlayersRollOnByTheSolvedStrategy() {
+        brain.prepare(deck, 0, GOAL, 3);
+        StrategyTable strategy = StrategyService.getInstance().solve(deck, GOAL, fraction -> {}).join();
+
+        // The five is kept either way; only the decision to roll the last die follows the table,
+        // which sees further than the one roll the easiest search looks ahead
+        int overruled = 0;
+        for (int turnScore = 0; turnScore < GOAL; turnScore += 50) {
+            NpcBrain.Move easy = decide(turnScore, 0, 1);
+            NpcBrain.Move hard = decide(turnScore, 0, 3);
+            Assert.assertEquals(0b1, hard.keepMask());
+            Assert.assertEquals(easy.keepMask(), hard.keepMask());
+            Assert.assertEquals(strategy.shouldRoll(roll.subList(1, 2), turnScore + 50, 0, GOAL), hard.rollOn());
+            if (easy.rollOn() != hard.rollOn()) {
+                overruled++;
+            }
+        }
+        Assert.assertTrue(overruled > 0);
+    }
+
+    @Test
+    public void strategiesAreSolvedForTheRoomLeft() {
+        int banked = 900;
+        StrategyTable wholeGame = StrategyService.getInstance().solve(deck, GOAL, fraction -> {}).join();
+        brain.prepare(deck, banked, GOAL, 3);
+        StrategyTable room = StrategyService.getInstance().solve(deck, GOAL - banked, fraction -> {}).join();
+
+        // With fifty in hand and fifty to go, the room's table banks where the game's table rolls on
+        int differ = 0;
+        List<Dice> last = roll.subList(1, 2);
+        for (int turnScore = 0; turnScore < GOAL - banked; turnScore += 50) {
+            NpcBrain.Move hard = decide(turnScore, banked, 3);
+            Assert.assertEquals(room.shouldRoll(last, turnScore + 50, banked, GOAL), hard.rollOn());
+            if (wholeGame.shouldRoll(last, turnScore + 50, 0, GOAL) != hard.rollOn()) {
+                differ++;
+            }
+        }
+        Assert.assertTrue(differ > 0);
+    }
+}
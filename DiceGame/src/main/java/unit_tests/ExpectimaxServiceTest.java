@@ -0,0 +1,118 @@
+package unit_tests;
+
+import model.records.dice.*;
+import org.junit.Assert;
+import org.junit.Test;
+import services.ExpectimaxService;
+import services.ScoreCalculatorService;
+import services.ScoringRules;
+import services.StrategySolver;
+import services.StrategyTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ExpectimaxServiceTest {
+    private final ExpectimaxService service = ExpectimaxService.getInstance();
+    private final ScoreCalculatorService scoreService = ScoreCalculatorService.getInstance();
+
+    @Test
+    public void deepSearchMatchesSolvedTable() {
+        // Every roll adds at least 50, so six rolls reach the goal from nothing
+        List<Dice> deck = List.of(new RegularDice(1), new LuckyDice(1), new RegularDice(1));
+        int goal = 300;
+        StrategyTable table = new StrategySolver().solve(deck, ScoringRules.STANDARD, goal, fraction -> {});
+
+        List<List<Dice>> parts = List.of(deck, deck.subList(0, 1), deck.subList(1, 3));
+        for (List<Dice> part : parts) {
+            for (int turnScore = 0; turnScore < goal; turnScore += 50) {
+                double rollOn = service.rollValue(deck, part, turnScore, 0, goal, 6);
+                Assert.assertEquals(part + " at " + turnScore, table.value(table.compositionOf(part), turnScore),
+                        Math.max(turnScore, rollOn), 1e-9);
+            }
+        }
+
+        // The move played is worth what the table says of the best keep
+        Assert.assertTrue(service.prepare(deck));
+        List<Dice> roll = List.of(new RegularDice(1), new LuckyDice(5), new RegularDice(3));
+        ExpectimaxService.Choice choice = service.bestMove(deck, roll, 50, 0, goal, 6, 1, TimeUnit.MINUTES);
+        double best = 0.0;
+        for (int mask = 1; mask < 1 << roll.size(); mask++) {
+            best = Math.max(best, keepValue(table, roll, mask, 50));
+        }
+        Assert.assertEquals(best, choice.value(), 1e-9);
+        Assert.assertEquals(best, keepValue(table, roll, choice.keepMask(), 50), 1e-9);
+    }
+
+    @Test
+    public void shallowSearchBanksWhatOneMoreRollIsWorth() {
+        List<Dice> deck = List.of(new RegularDice(1));
+        // A single die scores 100 or 50 with a third chance, keeping the points
+        Assert.assertEquals(200.0 / 3 + 25, service.rollValue(deck, List.of(), 200, 0, 4000, 1), 1e-9);
+        Assert.assertEquals(25.0, service.rollValue(deck, List.of(), 0, 0, 4000, 1), 1e-9);
+    }
+
+    @Test
+    public void movesFollowTheRoll() {
+        List<Dice> deck = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            deck.add(new RegularDice(1));
+        }
+        Assert.assertTrue(service.prepare(deck));
+        List<Dice> roll = List.of(new RegularDice(2), new RegularDice(3), new RegularDice(4),
+                new RegularDice(6), new RegularDice(2), new RegularDice(3));
+        ExpectimaxService.Choice bust = service.bestMove(deck, roll, 300, 0, 4000, 3, 1, TimeUnit.MINUTES);
+        Assert.assertEquals(0, bust.keepScore());
+        Assert.assertEquals(0.0, bust.value(), 0.0);
+
+        roll = List.of(new RegularDice(1), new RegularDice(2), new RegularDice(3),
+                new RegularDice(4), new RegularDice(6), new RegularDice(6));
+        ExpectimaxService.Choice early = service.bestMove(deck, roll, 0, 0, 4000, 3, 1, TimeUnit.MINUTES);
+        Assert.assertEquals(0b1, early.keepMask());
+        Assert.assertTrue(early.rollOn());
+        Assert.assertEquals(early, service.bestMove(deck, roll, 0, 0, 4000, 3, 1, TimeUnit.MINUTES));
+
+        ExpectimaxService.Choice atGoal = service.bestMove(deck, roll, 0, 3950, 4000, 3, 1, TimeUnit.MINUTES);
+        Assert.assertFalse(atGoal.rollOn());
+        Assert.assertEquals(100.0, atGoal.value(), 0.0);
+
+        // Out of time, the search still looks one roll ahead
+        ExpectimaxService.Choice hurried = service.bestMove(deck, roll, 0, 0, 4000, 8, 0, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(100, hurried.keepScore());
+    }
+
+    @Test
+    public void unsearchableDecksHaveNoMove() {
+        List<Dice> deck = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            deck.add(new RegularDice(1));
+        }
+        Assert.assertFalse(service.prepare(deck));
+        Assert.assertNull(service.bestMove(deck, deck.subList(0, 3), 0, 0, 4000, 2, 1, TimeUnit.SECONDS));
+        Assert.assertTrue(service.prepare(deck.subList(0, 2)));
+        Assert.assertNull(service.bestMove(deck.subList(0, 2), List.of(new CursedDice(1)), 0, 0, 4000, 2,
+                1, TimeUnit.SECONDS));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> service.bestMove(deck.subList(0, 2), deck.subList(0, 1), 0, 0, 4000, 0, 1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void unpreparedDecksAreNotSearched() {
+        List<Dice> deck = List.of(new RegularDice(1), new CursedDice(1), new LuckyDice(1), new RoyalDice(1));
+        List<Dice> roll = List.of(new RegularDice(1), new CursedDice(5));
+        Assert.assertNull(service.bestMove(deck, roll, 0, 0, 4000, 2, 1, TimeUnit.SECONDS));
+        Assert.assertTrue(service.prepare(deck));
+        Assert.assertEquals(150, service.bestMove(deck, roll, 0, 0, 4000, 2, 1, TimeUnit.SECONDS).keepScore());
+    }
+
+    private double keepValue(StrategyTable table, List<Dice> roll, int mask, int turnScore) {
+        List<Dice> kept = new ArrayList<>();
+        List<Dice> left = new ArrayList<>();
+        for (int i = 0; i < roll.size(); i++) {
+            ((mask & (1 << i)) != 0 ? kept : left).add(roll.get(i));
+        }
+        int score = scoreService.calculateScore(kept);
+        return score == 0 ? -1 : table.value(table.compositionOf(left), turnScore + score);
+    }
+}
@@ -6,20 +6,35 @@ import model.Game;
 import model.observers.GameObserver;
 import model.records.Turn;
 import model.records.dice.Dice;
+import model.records.dice.DiceDeck;
+import model.records.dice.RegularDice;
 import model.records.enums.EndingOfTurn;
 import model.records.npc.HumanPlayer;
+import model.records.npc.NPC;
+import model.records.npc.NpcBrain;
 import model.records.npc.Player;
 import org.junit.Assert;
+import org.junit.BeforeClass;
 import org.junit.Test;
 import services.NPCService;
 import services.PlayerService;
+import services.StrategyService;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class GameTest {
 
+    @BeforeClass
+    public static void storeTablesInTempFolder() throws IOException {
+        // Games against the hardest NPCs solve their decks in the background
+        System.setProperty(StrategyService.TABLES_PROPERTY, Files.createTempDirectory("dice-tables").toString());
+    }
+
     @Test
     public void setUpWithMissingPlayer() {
         Game game = Game.getInstance();
@@ -142,4 +157,34 @@ public class GameTest {
             Game.getInstance().throwDice();
         });
     }
+
+    @Test
+    public void npcTurnsStartWithNothingAtStake() throws SomeGameFieldsMissing {
+        List<Dice> roll = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            roll.add(new RegularDice(1));
+        }
+        NPC npc = new NPC("Test", new DiceDeck(roll), 1000, 0, 1, true, 500, 10, "", "");
+        npc.setBrain((situation, random) -> new NpcBrain.Move(1, 100, true)); // Keeps a one, rolls on
+
+        npc.rollDice(roll);
+        npc.rollDice(roll);
+        Assert.assertEquals(100, npc.getCurrentTurnScore());
+
+        // A game left in the middle of a turn does not carry its points into the next game
+        Game game = Game.getInstance();
+        game.setPlayer(PlayerService.getInstance().getPlayer());
+        game.setUpGame(npc, 10);
+        Assert.assertNull(npc.getLastTurn());
+        npc.rollDice(roll);
+        Assert.assertEquals(0, npc.getCurrentTurnScore());
+
+        // Nor does a turn into the NPC's next one
+        npc.rollDice(roll);
+        game.setCurrentTurn(0);
+        game.endTurn();
+        Assert.assertNull(npc.getLastTurn());
+        Assert.assertEquals(0, npc.getCurrentTurnScore());
+        Game.getInstance().setGameNull();
+    }
 }
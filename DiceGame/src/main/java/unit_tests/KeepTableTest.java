@@ -0,0 +1,176 @@
+package unit_tests;
+
+import model.records.dice.Dice;
+import model.records.dice.DiceDistribution;
+import model.records.dice.PackedRoll;
+import model.records.dice.PolyhedralDice;
+import model.records.dice.RegularDice;
+import org.junit.Assert;
+import org.junit.Test;
+import services.KeepTable;
+import services.ScoreCalculatorService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class KeepTableTest {
+    private final ScoreCalculatorService service = ScoreCalculatorService.getInstance();
+    private final int[] masks = new int[KeepTable.MAX_KEEPS];
+    private final int[] scores = new int[KeepTable.MAX_KEEPS];
+
+    @Test
+    public void tableMatchesBruteForceForEveryRoll() {
+        for (int dice = 0; dice <= 6; dice++) {
+            int rolls = (int) Math.pow(6, dice);
+            for (int r = 0; r < rolls; r++) {
+                List<Dice> roll = new ArrayList<>(dice);
+                for (int i = 0, rest = r; i < dice; i++, rest /= 6) {
+                    roll.add(new RegularDice(rest % 6 + 1));
+                }
+                assertKeepsMatchBruteForce(roll);
+            }
+        }
+    }
+
+    @Test
+    public void rollsBeyondTableMatchBruteForce() {
+        Random random = new Random(13);
+        DiceDistribution d7 = DiceDistribution.uniform(7);
+        for (int r = 0; r < 2_000; r++) {
+            List<Dice> roll = new ArrayList<>();
+            int dice = 1 + random.nextInt(KeepTable.MAX_DICE);
+            for (int i = 0; i < dice; i++) {
+                roll.add(new PolyhedralDice(1 + random.nextInt(7), d7));
+            }
+            assertKeepsMatchBruteForce(roll);
+        }
+    }
+
+    @Test
+    public void keepsAreListedBestFirst() {
+        List<Dice> roll = List.of(new RegularDice(5), new RegularDice(2), new RegularDice(1),
+                new RegularDice(2), new RegularDice(2), new RegularDice(3));
+        int count = service.legalKeeps(roll, masks, scores);
+
+        // 2-2-2 with 1 and 5 is worth most: 200 + 100 + 50
+        Assert.assertEquals(0b011111, masks[0]);
+        Assert.assertEquals(350, scores[0]);
+        // Every keep: {1, 5, 1+5} alone or with the triple
+        Assert.assertEquals(7, count);
+        Assert.assertEquals(50, scores[count - 1]);
+        Assert.assertEquals(0b000001, masks[count - 1]);
+    }
+
+    @Test
+    public void equalSidesOfDifferentKindsAreKeptApart() {
+        KeepTable keeps = KeepTable.standard();
+        int[] fives = {5, 5};
+
+        // Either 5 alone leaves a different dice to roll
+        Assert.assertEquals(3, keeps.legalKeeps(fives, new int[] {0, 1}, 2, masks, scores));
+        Assert.assertEquals(0b11, masks[0]);
+        Assert.assertEquals(100, scores[0]);
+        Assert.assertEquals(50, scores[2]);
+        Assert.assertEquals(0b11, masks[1] | masks[2]);
+
+        Assert.assertEquals(2, keeps.legalKeeps(fives, new int[] {0, 0}, 2, masks, scores));
+    }
+
+    @Test
+    public void keepsOfMixedKindsMatchBruteForce() {
+        KeepTable keeps = KeepTable.standard();
+        Random random = new Random(17);
+        for (int r = 0; r < 2_000; r++) {
+            int size = 1 + random.nextInt(KeepTable.MAX_DICE);
+            int sides = r % 2 == 0 ? 6 : 7; // Odd rolls may go beyond the table
+            int[] faces = new int[size];
+            int[] kinds = new int[size];
+            List<Dice> roll = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                faces[i] = 1 + random.nextInt(sides);
+                kinds[i] = random.nextInt(3);
+                roll.add(new PolyhedralDice(faces[i], DiceDistribution.uniform(7)));
+            }
+
+            Map<Integer, Integer> expected = new HashMap<>();
+            for (int mask = 1; mask < (1 << size); mask++) {
+                if (!lowestPositions(faces, kinds, mask)) continue;
+                List<Dice> kept = new ArrayList<>();
+                for (int i = 0; i < size; i++) {
+                    if ((mask & (1 << i)) != 0) kept.add(roll.get(i));
+                }
+                int score = service.calculateStandardScore(kept);
+                if (score > 0) expected.put(mask, score);
+            }
+
+            int count = keeps.legalKeeps(faces, kinds, size, masks, scores);
+            Map<Integer, Integer> actual = new HashMap<>();
+            for (int k = 0; k < count; k++) {
+                actual.put(masks[k], scores[k]);
+                if (k > 0) {
+                    Assert.assertTrue(scores[k - 1] >= scores[k]);
+                }
+            }
+            Assert.assertEquals(roll.toString(), expected, actual);
+        }
+    }
+
+    private void assertKeepsMatchBruteForce(List<Dice> roll) {
+        int size = roll.size();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int mask = 1; mask < (1 << size); mask++) {
+            if (!lowestPositions(roll, mask)) continue;
+            List<Dice> kept = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if ((mask & (1 << i)) != 0) kept.add(roll.get(i));
+            }
+            int score = service.calculateStandardScore(kept);
+            if (score > 0) expected.put(mask, score);
+        }
+
+        int count = service.legalKeeps(roll, masks, scores);
+        Map<Integer, Integer> actual = new HashMap<>();
+        for (int k = 0; k < count; k++) {
+            actual.put(masks[k], scores[k]);
+            if (k > 0) {
+                Assert.assertTrue(scores[k - 1] >= scores[k]);
+            }
+        }
+        Assert.assertEquals(roll.toString(), expected, actual);
+
+        int packedCount = service.legalKeeps(PackedRoll.of(roll), masks, scores);
+        Assert.assertEquals(count, packedCount);
+        for (int k = 0; k < packedCount; k++) {
+            Assert.assertEquals(actual.get(masks[k]), Integer.valueOf(scores[k]));
+        }
+    }
+
+    // Equal faces of one kind are kept from the lowest positions
+    private static boolean lowestPositions(int[] faces, int[] kinds, int mask) {
+        for (int i = 0; i < faces.length; i++) {
+            for (int j = i + 1; j < faces.length; j++) {
+                if ((mask & (1 << i)) == 0 && (mask & (1 << j)) != 0
+                        && faces[i] == faces[j] && kinds[i] == kinds[j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Equal faces are kept from the lowest positions, so each multiset appears once
+    private static boolean lowestPositions(List<Dice> roll, int mask) {
+        for (int i = 0; i < roll.size(); i++) {
+            for (int j = i + 1; j < roll.size(); j++) {
+                if ((mask & (1 << i)) == 0 && (mask & (1 << j)) != 0
+                        && roll.get(i).getCurrentSide() == roll.get(j).getCurrentSide()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package unit_tests;
+
+import model.records.dice.Dice;
+import model.records.dice.RegularDice;
+import org.junit.Assert;
+import org.junit.Test;
+import utils.LongObjectMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class LongObjectMapTest {
+
+    @Test
+    public void lookupSurvivesRolls() {
+        LongObjectMap<String> views = new LongObjectMap<>();
+        Dice dice = new RegularDice(1);
+        views.put(dice.getId(), "view");
+        for (int i = 0; i < 100; i++) {
+            dice.roll();
+            Assert.assertEquals("view", views.get(dice.getId()));
+        }
+        Assert.assertEquals("view", views.remove(dice.getId()));
+        Assert.assertTrue(views.isEmpty());
+    }
+
+    @Test
+    public void behavesLikeHashMap() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            // Small key range so puts, hits and removals collide often, key 0 included
+            long key = random.nextInt(2_000) - 1_000;
+            switch (random.nextInt(3)) {
+                case 0 -> Assert.assertEquals(reference.put(key, (long) i), map.put(key, (long) i));
+                case 1 -> Assert.assertEquals(reference.remove(key), map.remove(key));
+                default -> Assert.assertEquals(reference.get(key), map.get(key));
+            }
+            Assert.assertEquals(reference.size(), map.size());
+        }
+        for (long key = -1_000; key < 1_000; key++) {
+            Assert.assertEquals(reference.containsKey(key), map.containsKey(key));
+        }
+        long[] sum = new long[1];
+        map.forEachValue(v -> sum[0] += v);
+        Assert.assertEquals(reference.values().stream().mapToLong(Long::longValue).sum(), sum[0]);
+
+        map.clear();
+        Assert.assertEquals(0, map.size());
+        Assert.assertNull(map.get(0));
+    }
+}
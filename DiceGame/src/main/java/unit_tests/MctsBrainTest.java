@@ -0,0 +1,113 @@
+package unit_tests;
+
+import model.records.dice.CursedDice;
+import model.records.dice.Dice;
+import model.records.dice.RandomStreams;
+import model.records.dice.RegularDice;
+import model.records.npc.ExpectimaxBrain;
+import model.records.npc.MctsBrain;
+import model.records.npc.NpcBrain;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import services.SearchExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MctsBrainTest {
+    private final SearchExecutor executor = new SearchExecutor(3);
+    private final MctsBrain brain = new MctsBrain(new MctsBrain.Budget(10_000, 4_000), executor);
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    private static List<Dice> dice(int... sides) {
+        List<Dice> dice = new ArrayList<>();
+        for (int side : sides) {
+            dice.add(new RegularDice(side));
+        }
+        return dice;
+    }
+
+    private NpcBrain.Move decide(List<Dice> roll, List<Dice> deck, int turnScore, int banked, long seed) {
+        NpcBrain.Situation situation = new NpcBrain.Situation(roll, deck, turnScore, banked, 4000, 3);
+        return brain.decide(situation, RandomStreams.create(seed));
+    }
+
+    @Test
+    public void bustingRollHasNoMove() {
+        List<Dice> roll = dice(2, 3, 4, 6, 2, 3);
+        Assert.assertEquals(NpcBrain.Move.BUST, decide(roll, roll, 0, 0, 1));
+    }
+
+    @Test
+    public void banksWhenTheGoalIsReached() {
+        List<Dice> roll = dice(1, 1, 1, 2, 3, 4);
+        NpcBrain.Move move = decide(roll, roll, 0, 3500, 1);
+        Assert.assertFalse(move.rollOn());
+        Assert.assertTrue(move.keepScore() >= 500);
+    }
+
+    @Test
+    public void rollsOnWithManyDiceLeft() {
+        List<Dice> roll = dice(1, 2, 3, 4, 6, 6);
+        NpcBrain.Move move = decide(roll, roll, 0, 0, 1);
+        Assert.assertTrue(move.rollOn());
+        Assert.assertEquals(100, move.keepScore());
+        Assert.assertEquals(1, move.keepMask()); // The one, the first dice
+    }
+
+    @Test
+    public void banksWithOneDieLeftAndMuchAtStake() {
+        List<Dice> roll = dice(2, 5);
+        List<Dice> deck = new ArrayList<>(roll);
+        deck.addAll(dice(1, 1, 1, 1));
+        NpcBrain.Move move = decide(roll, deck, 2000, 0, 1);
+        Assert.assertFalse(move.rollOn());
+        Assert.assertEquals(0b10, move.keepMask());
+        Assert.assertEquals(50, move.keepScore());
+    }
+
+    @Test
+    public void iterationBudgetIsReproducible() {
+        List<Dice> roll = dice(1, 5, 5, 2, 3, 4);
+        for (long seed = 0; seed < 5; seed++) {
+            Assert.assertEquals(decide(roll, roll, 300, 0, seed), decide(roll, roll, 300, 0, seed));
+        }
+    }
+
+    @Test
+    public void timeBudgetReturnsPromptly() {
+        MctsBrain timed = new MctsBrain(new MctsBrain.Budget(30, Integer.MAX_VALUE), executor);
+        List<Dice> roll = dice(1, 5, 5, 2, 3, 4);
+        long start = System.nanoTime();
+        NpcBrain.Move move = timed.decide(new NpcBrain.Situation(roll, roll, 0, 0, 4000, 1), RandomStreams.create(3));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        Assert.assertTrue(move.keepScore() > 0);
+        Assert.assertTrue("took " + millis + " ms", millis < 1000);
+    }
+
+    @Test
+    public void strongerPlayersRunMoreIterationsWithinTheSameTime() {
+        for (int difficulty = 1; difficulty < 3; difficulty++) {
+            MctsBrain.Budget easier = ExpectimaxBrain.fallbackBudgetFor(difficulty);
+            MctsBrain.Budget harder = ExpectimaxBrain.fallbackBudgetFor(difficulty + 1);
+            Assert.assertEquals(easier.millis(), harder.millis());
+            Assert.assertTrue(harder.iterations() > easier.iterations());
+        }
+        Assert.assertTrue(ExpectimaxBrain.fallbackBudgetFor(3).millis() < 10);
+    }
+
+    @Test
+    public void expectimaxHandsUnsearchableDecksToTheSearch() {
+        // The search only enumerates rolls of the deck's own dice
+        List<Dice> roll = List.of(new CursedDice(1), new RegularDice(2));
+        NpcBrain.Situation situation = new NpcBrain.Situation(roll, dice(2, 2), 0, 0, 4000, 1);
+        NpcBrain.Move move = new ExpectimaxBrain().decide(situation, RandomStreams.create(5));
+        Assert.assertEquals(100, move.keepScore());
+        Assert.assertEquals(1, move.keepMask());
+    }
+}
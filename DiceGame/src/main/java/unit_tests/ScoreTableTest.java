@@ -0,0 +1,101 @@
+package unit_tests;
+
+import model.records.dice.Dice;
+import model.records.dice.DiceDistribution;
+import model.records.dice.PackedRoll;
+import model.records.dice.PolyhedralDice;
+import model.records.dice.RegularDice;
+import org.junit.Assert;
+import org.junit.Test;
+import services.ScoreCalculatorService;
+import services.ScoreTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ScoreTableTest {
+    private final ScoreCalculatorService service = ScoreCalculatorService.getInstance();
+
+    @Test
+    public void tableMatchesRulesForEveryRoll() {
+        // Every ordered roll of zero to six dice, 55987 in total
+        int checked = 0;
+        for (int dice = 0; dice <= ScoreTable.MAX_DICE; dice++) {
+            int rolls = (int) Math.pow(6, dice);
+            for (int r = 0; r < rolls; r++) {
+                List<Dice> roll = new ArrayList<>(dice);
+                for (int i = 0, rest = r; i < dice; i++, rest /= 6) {
+                    roll.add(new RegularDice(rest % 6 + 1));
+                }
+                assertOverloadsAgree(roll);
+                checked++;
+            }
+        }
+        Assert.assertEquals(55_987, checked);
+    }
+
+    @Test
+    public void overloadsMatchRulesBeyondTable() {
+        // Up to eight dice with sides up to 7, the range of a packed roll
+        Random random = new Random(41);
+        DiceDistribution d7 = DiceDistribution.uniform(7);
+        for (int r = 0; r < 50_000; r++) {
+            List<Dice> roll = new ArrayList<>();
+            int dice = 1 + random.nextInt(PackedRoll.MAX_DICE);
+            for (int i = 0; i < dice; i++) {
+                roll.add(new PolyhedralDice(1 + random.nextInt(random.nextBoolean() ? 6 : 7), d7));
+            }
+            assertOverloadsAgree(roll);
+        }
+    }
+
+    private void assertOverloadsAgree(List<Dice> roll) {
+        int[] faceCounts = new int[PackedRoll.MAX_SIDE + 1];
+        for (Dice dice : roll) {
+            faceCounts[dice.getCurrentSide()]++;
+        }
+        int score = service.calculateStandardScore(roll);
+        boolean scoring = service.hasAnyStandardScoringCombination(roll);
+        String label = roll.stream().map(d -> String.valueOf(d.getCurrentSide())).toList().toString();
+
+        Assert.assertEquals(label, score, service.calculateScore(roll));
+        Assert.assertEquals(label, score, service.scoreFaceCounts(faceCounts));
+        Assert.assertEquals(label, score, service.scorePacked(PackedRoll.of(roll)));
+        Assert.assertEquals(label, scoring, service.hasAnyScoringCombination(roll));
+        Assert.assertEquals(label, scoring, service.hasScoringFaceCounts(faceCounts));
+    }
+
+    @Test
+    public void countCodesRoundTrip() {
+        int[] counts = new int[ScoreTable.MAX_FACE + 1];
+        int multisets = 0;
+        for (int code = 0; code < ScoreTable.CODES; code++) {
+            if (ScoreTable.decode(code, counts) <= ScoreTable.MAX_DICE) {
+                Assert.assertEquals(code, ScoreTable.encode(counts));
+                multisets++;
+            }
+        }
+        Assert.assertEquals(924, multisets);
+        counts[1] = 3;
+        counts[2] = 0;
+        counts[3] = 0;
+        counts[4] = 0;
+        counts[5] = 1;
+        counts[6] = 0;
+        Assert.assertEquals(1050, ScoreTable.standard().score(ScoreTable.encode(counts)));
+    }
+
+    @Test
+    public void rollsOutsideTableUseRules() {
+        List<Dice> seven = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            seven.add(new RegularDice(1));
+        }
+        Assert.assertEquals(service.calculateStandardScore(seven), service.calculateScore(seven));
+
+        List<Dice> d20 = List.of(new PolyhedralDice(12, 20), new PolyhedralDice(12, 20), new PolyhedralDice(12, 20));
+        Assert.assertEquals(1200, service.calculateScore(d20));
+    }
+
+}
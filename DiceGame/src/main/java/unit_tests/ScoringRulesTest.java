@@ -0,0 +1,170 @@
+package unit_tests;
+
+import exceptions.WrongScoringRules;
+import model.records.dice.Dice;
+import model.records.dice.RegularDice;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import services.KeepTable;
+import services.ScoreCalculatorService;
+import services.ScoreTable;
+import services.ScoringRules;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+public class ScoringRulesTest {
+    private final ScoreCalculatorService service = ScoreCalculatorService.getInstance();
+
+    @After
+    public void restoreStandardRules() {
+        service.setRules(ScoringRules.STANDARD);
+    }
+
+    private static List<Dice> roll(int... sides) {
+        List<Dice> roll = new ArrayList<>();
+        for (int side : sides) {
+            roll.add(new RegularDice(side));
+        }
+        return roll;
+    }
+
+    @Test
+    public void standardTablesMatchReference() {
+        ScoreTable table = ScoreTable.compile(ScoringRules.STANDARD);
+        Assert.assertSame(ScoreTable.standard(), table);
+        Assert.assertSame(KeepTable.standard(), KeepTable.of(table));
+
+        int[] counts = new int[ScoreTable.MAX_FACE + 1];
+        for (int code = 0; code < ScoreTable.CODES; code++) {
+            int dice = ScoreTable.decode(code, counts);
+            if (dice > ScoreTable.MAX_DICE) continue;
+            List<Dice> roll = new ArrayList<>();
+            for (int side = 1; side <= ScoreTable.MAX_FACE; side++) {
+                for (int c = 0; c < counts[side]; c++) {
+                    roll.add(new RegularDice(side));
+                }
+            }
+            Assert.assertEquals(service.calculateStandardScore(roll), table.score(code));
+            Assert.assertEquals(service.hasAnyStandardScoringCombination(roll), table.hasScoringCombination(code));
+        }
+    }
+
+    @Test
+    public void switchingRulesChangesEveryLookup() {
+        List<Dice> fourTwos = roll(2, 2, 2, 2);
+        List<Dice> threePairs = roll(2, 2, 3, 3, 4, 4);
+        Assert.assertEquals(1200, service.calculateScore(fourTwos));
+        Assert.assertEquals(1500, service.calculateScore(threePairs));
+
+        service.setRules(ScoringRules.DOUBLING);
+        Assert.assertEquals(ScoringRules.DOUBLING, service.getRules());
+        Assert.assertEquals(400, service.calculateScore(fourTwos));
+        Assert.assertEquals(2000, service.calculateScore(roll(1, 1, 1, 1)));
+        Assert.assertEquals(1500, service.calculateScore(threePairs));
+
+        int[] masks = new int[KeepTable.MAX_KEEPS];
+        int[] scores = new int[KeepTable.MAX_KEEPS];
+        int keeps = service.legalKeeps(fourTwos, masks, scores);
+        Assert.assertEquals(2, keeps);
+        Assert.assertEquals(400, scores[0]);
+        Assert.assertEquals(0b1111, masks[0]);
+        Assert.assertEquals(200, scores[1]);
+
+        service.setRules(ScoringRules.SIMPLE);
+        Assert.assertEquals(0, service.calculateScore(threePairs));
+        Assert.assertFalse(service.hasAnyScoringCombination(threePairs));
+        Assert.assertFalse(service.hasScoringFaceCounts(new int[]{0, 0, 2, 2, 2, 0, 0}));
+
+        service.setRules(ScoringRules.STANDARD);
+        Assert.assertEquals(1200, service.calculateScore(fourTwos));
+        Assert.assertTrue(service.hasAnyScoringCombination(threePairs));
+    }
+
+    @Test
+    public void rulesBeyondTableFollowActiveRules() {
+        service.setRules(ScoringRules.DOUBLING);
+        Assert.assertEquals(3200, service.calculateScore(roll(2, 2, 2, 2, 2, 2, 2)));
+        Assert.assertEquals(3200, service.scoreFaceCounts(new int[]{0, 0, 7}));
+    }
+
+    @Test
+    public void propertiesOverrideBasePreset() throws IOException {
+        String file = "name=House rules\nbase=doubling\nstraight=3000\ntwoTriples=0\nsingle.five=100\n";
+        ScoringRules rules = ScoringRules.load(new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals("House rules", rules.getName());
+        Assert.assertEquals(ScoringRules.OfAKind.DOUBLING, rules.getOfAKind());
+
+        ScoreTable table = ScoreTable.compile(rules);
+        Assert.assertEquals(3000, table.score(code(1, 2, 3, 4, 5, 6)));
+        Assert.assertEquals(200, table.score(code(5, 5)));
+        Assert.assertEquals(200 + 300, table.score(code(2, 2, 2, 3, 3, 3))); // Two triples disabled
+
+        // Equal values compile to the same tables whatever the rules are called
+        Properties renamed = new Properties();
+        renamed.setProperty("name", "Same values");
+        renamed.setProperty("base", "doubling");
+        renamed.setProperty("straight", "3000");
+        renamed.setProperty("twoTriples", "0");
+        renamed.setProperty("single.five", "100");
+        Assert.assertSame(table, ScoreTable.compile(ScoringRules.fromProperties(renamed)));
+    }
+
+    @Test
+    public void unusedRulesAreNotPinned() throws Exception {
+        Properties custom = new Properties();
+        custom.setProperty("straight", "2500");
+        ScoreTable live = ScoreTable.compile(ScoringRules.fromProperties(custom));
+        KeepTable liveKeeps = KeepTable.of(live);
+
+        Properties other = new Properties();
+        other.setProperty("straight", "2000");
+        ScoreTable table = ScoreTable.compile(ScoringRules.fromProperties(other));
+        WeakReference<ScoreTable> dropped = new WeakReference<>(table);
+        WeakReference<KeepTable> droppedKeeps = new WeakReference<>(KeepTable.of(table));
+        table = null;
+        for (int i = 0; i < 50 && (dropped.get() != null || droppedKeeps.get() != null); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(dropped.get());
+        Assert.assertNull(droppedKeeps.get());
+        Assert.assertSame(live, ScoreTable.compile(ScoringRules.fromProperties(custom)));
+        Assert.assertSame(liveKeeps, KeepTable.of(live));
+    }
+
+    @Test
+    public void invalidRulesAreRejected() {
+        assertRejected("straigth", "1500");
+        assertRejected("straight", "-1");
+        assertRejected("straight", "lots");
+        assertRejected("ofAKind", "tripling");
+        assertRejected("base", "unknown");
+
+        Properties huge = new Properties();
+        huge.setProperty("ofAKind", "doubling");
+        huge.setProperty("triple.one", "10000");
+        ScoringRules rules = ScoringRules.fromProperties(huge);
+        Assert.assertThrows(WrongScoringRules.class, () -> ScoreTable.compile(rules));
+    }
+
+    private static void assertRejected(String key, String value) {
+        Properties properties = new Properties();
+        properties.setProperty(key, value);
+        Assert.assertThrows(WrongScoringRules.class, () -> ScoringRules.fromProperties(properties));
+    }
+
+    private static int code(int... sides) {
+        int code = 0;
+        for (int side : sides) {
+            code += ScoreTable.weight(side);
+        }
+        return code;
+    }
+}
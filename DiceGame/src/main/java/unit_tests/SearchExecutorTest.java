@@ -0,0 +1,86 @@
+package unit_tests;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import services.SearchExecutor;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class SearchExecutorTest {
+    private final SearchExecutor executor = new SearchExecutor(3);
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void resultsKeepCandidateOrder() {
+        List<Integer> results = executor.evaluate(100, i -> i * i, 10, TimeUnit.SECONDS);
+        Assert.assertEquals(100, results.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(Integer.valueOf(i * i), results.get(i));
+        }
+        Assert.assertTrue(executor.evaluate(0, i -> i, 1, TimeUnit.SECONDS).isEmpty());
+    }
+
+    @Test
+    public void workRunsInChunksOnBoundedWorkers() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        executor.evaluate(1000, i -> threads.add(Thread.currentThread().getName()), 10, TimeUnit.SECONDS);
+        Assert.assertTrue(threads.size() <= executor.getParallelism());
+        for (String name : threads) {
+            Assert.assertTrue(name, name.startsWith("npc-search-"));
+        }
+    }
+
+    @Test
+    public void nestedSearchesRunOnTheSameWorkers() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Integer> sums = executor.evaluate(6, i -> executor.evaluate(10, j -> {
+            threads.add(Thread.currentThread().getName());
+            return i * j;
+        }, 10, TimeUnit.SECONDS).stream().mapToInt(Integer::intValue).sum(), 10, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 6; i++) {
+            Assert.assertEquals(Integer.valueOf(45 * i), sums.get(i));
+        }
+        Assert.assertTrue(threads.size() <= executor.getParallelism());
+    }
+
+    @Test
+    public void failedAndLateCandidatesAreNull() {
+        List<Integer> results = executor.evaluate(3, i -> {
+            if (i == 1) throw new IllegalStateException("broken candidate");
+            return i;
+        }, 10, TimeUnit.SECONDS);
+        Assert.assertEquals(Integer.valueOf(0), results.get(0));
+        Assert.assertNull(results.get(1));
+        Assert.assertEquals(Integer.valueOf(2), results.get(2));
+
+        List<Integer> late = executor.evaluate(30, i -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return i;
+        }, 50, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(30, late.size());
+        Assert.assertTrue(late.contains(null));
+    }
+
+    @Test
+    public void workAfterShutdownRunsOnCaller() {
+        executor.shutdown();
+        Assert.assertTrue(executor.isShutdown());
+        String caller = Thread.currentThread().getName();
+        List<String> results = executor.evaluate(4, i -> Thread.currentThread().getName(), 1, TimeUnit.SECONDS);
+        Assert.assertEquals(List.of(caller, caller, caller, caller), results);
+        executor.shutdown(); // Safe to repeat
+    }
+}
@@ -0,0 +1,86 @@
+package unit_tests;
+
+import model.records.dice.Dice;
+import model.records.dice.PolyhedralDice;
+import model.records.dice.RegularDice;
+import model.records.dice.RoyalDice;
+import org.junit.Assert;
+import org.junit.Test;
+import services.ScoreCalculatorService;
+import services.ScoringRules;
+import services.SelectionScore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SelectionScoreTest {
+    private final ScoreCalculatorService service = ScoreCalculatorService.getInstance();
+
+    @Test
+    public void runningScoreMatchesFullRecount() {
+        Random random = new Random(15);
+        SelectionScore selection = new SelectionScore();
+        List<Dice> table = new ArrayList<>();
+        List<Dice> picked = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            table.add(i < 7 ? new RegularDice(1 + random.nextInt(6)) : new PolyhedralDice(1 + random.nextInt(8), 8));
+        }
+
+        for (int click = 0; click < 20_000; click++) {
+            Dice dice = table.get(random.nextInt(table.size()));
+            if (picked.remove(dice)) {
+                selection.remove(dice);
+            } else {
+                picked.add(dice);
+                selection.add(dice);
+            }
+            Assert.assertEquals(picked.size(), selection.size());
+            Assert.assertEquals(service.calculateScore(picked), selection.getScore());
+
+            // Reroll the table now and then, as the game does after a selection is scored
+            if (random.nextInt(50) == 0) {
+                picked.clear();
+                selection.clear();
+                for (Dice d : table) {
+                    d.roll();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void royalDiceDoublesWhileSelected() {
+        SelectionScore selection = new SelectionScore();
+        Dice royal = new RoyalDice(1);
+        Dice five = new RegularDice(5);
+
+        selection.add(five);
+        Assert.assertEquals(50, selection.getScore());
+        Assert.assertTrue(selection.add(royal));
+        Assert.assertEquals(150, selection.getBaseScore());
+        Assert.assertEquals(300, selection.getScore());
+        selection.remove(royal);
+        Assert.assertEquals(50, selection.getScore());
+
+        Dice royalFive = new RoyalDice(5);
+        Assert.assertFalse(selection.add(royalFive));
+        Assert.assertEquals(100, selection.getScore());
+    }
+
+    @Test
+    public void selectionFollowsActiveRules() {
+        SelectionScore selection = new SelectionScore();
+        for (int i = 0; i < 4; i++) {
+            selection.add(new RegularDice(3));
+        }
+        Assert.assertEquals(1300, selection.getScore());
+        try {
+            service.setRules(ScoringRules.DOUBLING);
+            Assert.assertEquals(600, selection.getScore());
+        } finally {
+            service.setRules(ScoringRules.STANDARD);
+        }
+        Assert.assertThrows(IllegalStateException.class, () -> selection.remove(new RegularDice(4)));
+    }
+}
@@ -0,0 +1,132 @@
+package unit_tests;
+
+import model.records.dice.*;
+import org.junit.Assert;
+import org.junit.Test;
+import services.ScoreCalculatorService;
+import services.ScoringRules;
+import services.StrategySolver;
+import services.StrategyTable;
+
+import java.util.*;
+
+public class StrategySolverTest {
+    private final ScoreCalculatorService scoreService = ScoreCalculatorService.getInstance();
+
+    /**
+     * Plays the turn out by brute force: every ordered roll, every subset kept.
+     */
+    private static final class BruteForce {
+        final List<Dice> deck;
+        final int goal;
+        final Map<String, Double> memo = new HashMap<>();
+        final ScoreCalculatorService scoreService = ScoreCalculatorService.getInstance();
+
+        BruteForce(List<Dice> deck, int goal) {
+            this.deck = deck;
+            this.goal = goal;
+        }
+
+        double value(List<Dice> remaining, int turnScore) {
+            if (turnScore >= goal) return turnScore;
+            if (remaining.isEmpty()) remaining = deck;
+            String key = remaining.stream().map(d -> d.getClass().getSimpleName()).sorted().toList() + "|" + turnScore;
+            Double known = memo.get(key);
+            if (known != null) return known;
+
+            List<Dice> roll = new ArrayList<>();
+            for (Dice d : remaining) {
+                roll.add(new PolyhedralDice(1, d.getDistribution()));
+            }
+            double value = Math.max(turnScore, rollValue(remaining, roll, 0, 1.0, turnScore));
+            memo.put(key, value);
+            return value;
+        }
+
+        private double rollValue(List<Dice> remaining, List<Dice> roll, int index, double probability, int turnScore) {
+            if (index == roll.size()) {
+                double best = 0.0;
+                for (int mask = 1; mask < (1 << roll.size()); mask++) {
+                    List<Dice> kept = new ArrayList<>();
+                    List<Dice> left = new ArrayList<>();
+                    for (int i = 0; i < roll.size(); i++) {
+                        ((mask & (1 << i)) != 0 ? kept : left).add(remaining.get(i));
+                    }
+                    List<Dice> keptRoll = new ArrayList<>();
+                    for (int i = 0; i < roll.size(); i++) {
+                        if ((mask & (1 << i)) != 0) keptRoll.add(roll.get(i));
+                    }
+                    int score = scoreService.calculateScore(keptRoll);
+                    if (score > 0) best = Math.max(best, value(left, turnScore + score));
+                }
+                return probability * best;
+            }
+            DiceDistribution distribution = remaining.get(index).getDistribution();
+            double sum = 0.0;
+            for (int i = 0; i < distribution.size(); i++) {
+                roll.get(index).setCurrentSide(distribution.sideAt(i));
+                sum += rollValue(remaining, roll, index + 1, probability * distribution.probabilityAt(i), turnScore);
+            }
+            return sum;
+        }
+    }
+
+    @Test
+    public void valuesMatchBruteForce() {
+        List<Dice> deck = List.of(new RegularDice(1), new LuckyDice(1), new RegularDice(1));
+        int goal = 1500;
+        StrategyTable table = new StrategySolver().solve(deck, ScoringRules.STANDARD, goal, fraction -> {});
+        BruteForce bruteForce = new BruteForce(deck, goal);
+
+        List<List<Dice>> parts = List.of(deck, deck.subList(0, 1), deck.subList(1, 2), deck.subList(1, 3),
+                List.of(deck.get(0), deck.get(2)));
+        for (List<Dice> part : parts) {
+            int composition = table.compositionOf(part);
+            Assert.assertTrue(composition > 0);
+            for (int turnScore = 0; turnScore < goal + 200; turnScore += 50) {
+                double expected = bruteForce.value(part, turnScore);
+                Assert.assertEquals(part + " at " + turnScore, expected, table.value(composition, turnScore), 1e-9);
+                Assert.assertEquals(expected > turnScore, table.shouldRoll(composition, turnScore));
+            }
+        }
+        Assert.assertEquals(table.fullDeck(), table.compositionOf(List.of()));
+        Assert.assertEquals(-1, table.compositionOf(List.of(new CursedDice(1))));
+    }
+
+    @Test
+    public void fullDeckSolvesWithProgress() {
+        List<Dice> deck = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            deck.add(new RegularDice(1));
+        }
+        List<Double> reported = Collections.synchronizedList(new ArrayList<>());
+        StrategyTable table = new StrategySolver().solveAsync(deck, ScoringRules.STANDARD, 5000, reported::add).join();
+
+        Assert.assertFalse(reported.isEmpty());
+        Assert.assertEquals(1.0, Collections.max(reported), 1e-9);
+        Assert.assertTrue(table.expectedTurnValue() > 300);
+        Assert.assertTrue(table.shouldRoll(table.fullDeck(), 0));
+        Assert.assertFalse(table.shouldRoll(table.compositionOf(deck.subList(0, 1)), 2000));
+        Assert.assertFalse(table.shouldRoll(deck, 300, 4800, 5000));
+
+        // The best keep is at least as good as every legal keep
+        List<Dice> roll = List.of(new RegularDice(1), new RegularDice(5), new RegularDice(5),
+                new RegularDice(2), new RegularDice(3), new RegularDice(3));
+        int best = table.bestKeep(roll, 0);
+        Assert.assertTrue(best != 0);
+        double bestValue = keepValue(table, roll, best);
+        for (int mask = 1; mask < (1 << roll.size()); mask++) {
+            Assert.assertTrue(keepValue(table, roll, mask) <= bestValue + 1e-9);
+        }
+    }
+
+    private double keepValue(StrategyTable table, List<Dice> roll, int mask) {
+        List<Dice> kept = new ArrayList<>();
+        List<Dice> left = new ArrayList<>();
+        for (int i = 0; i < roll.size(); i++) {
+            ((mask & (1 << i)) != 0 ? kept : left).add(roll.get(i));
+        }
+        int score = scoreService.calculateScore(kept);
+        return score == 0 ? -1 : table.value(table.compositionOf(left), score);
+    }
+}
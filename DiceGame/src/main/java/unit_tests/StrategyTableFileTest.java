@@ -0,0 +1,101 @@
+package unit_tests;
+
+import model.records.dice.*;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import services.ScoringRules;
+import services.StrategySolver;
+import services.StrategyTable;
+import services.StrategyTableFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class StrategyTableFileTest {
+    private final List<Dice> deck = List.of(new RegularDice(1), new LuckyDice(1), new RegularDice(1));
+    private final int goal = 1500;
+    private Path directory;
+    private StrategyTable solved;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("strategy-tables");
+        solved = new StrategySolver().solve(deck, ScoringRules.STANDARD, goal, fraction -> {});
+        file = directory.resolve(StrategyTableFile.fileName(ScoringRules.STANDARD, deck, goal));
+        StrategyTableFile.write(solved, file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void mappedTableMatchesSolvedTable() throws IOException {
+        StrategyTable mapped = StrategyTableFile.map(file, ScoringRules.STANDARD, deck, goal);
+
+        Assert.assertEquals(solved.compositions(), mapped.compositions());
+        Assert.assertEquals(goal, mapped.getGoal());
+        Assert.assertSame(ScoringRules.STANDARD, mapped.getRules());
+        for (int composition = 0; composition < solved.compositions(); composition++) {
+            for (int turnScore = 0; turnScore < goal + 100; turnScore += 50) {
+                Assert.assertEquals(solved.value(composition, turnScore), mapped.value(composition, turnScore), 0.0);
+                Assert.assertEquals(solved.shouldRoll(composition, turnScore), mapped.shouldRoll(composition, turnScore));
+            }
+        }
+        Assert.assertEquals(solved.compositionOf(deck.subList(1, 3)), mapped.compositionOf(deck.subList(1, 3)));
+    }
+
+    @Test
+    public void fileNameDependsOnDeckRulesAndGoal() {
+        String name = StrategyTableFile.fileName(ScoringRules.STANDARD, deck, goal);
+        Assert.assertTrue(name.endsWith(StrategyTableFile.EXTENSION));
+        Assert.assertEquals(name, StrategyTableFile.fileName(ScoringRules.STANDARD, List.copyOf(deck), goal));
+        Assert.assertNotEquals(name, StrategyTableFile.fileName(ScoringRules.STANDARD, deck, goal + 500));
+        Assert.assertNotEquals(name, StrategyTableFile.fileName(ScoringRules.DOUBLING, deck, goal));
+        Assert.assertNotEquals(name, StrategyTableFile.fileName(ScoringRules.STANDARD, deck.subList(0, 2), goal));
+    }
+
+    @Test
+    public void tableOfAnotherDeckIsRejected() {
+        Assert.assertThrows(IOException.class, () -> StrategyTableFile.map(file, ScoringRules.STANDARD, deck, goal + 500));
+        Assert.assertThrows(IOException.class, () -> StrategyTableFile.map(file, ScoringRules.DOUBLING, deck, goal));
+        Assert.assertThrows(IOException.class,
+                () -> StrategyTableFile.map(file, ScoringRules.STANDARD, List.of(new RegularDice(1)), goal));
+    }
+
+    @Test
+    public void brokenFilesAreRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+
+        Path otherVersion = directory.resolve("version" + StrategyTableFile.EXTENSION);
+        byte[] changed = bytes.clone();
+        ByteBuffer.wrap(changed).order(ByteOrder.LITTLE_ENDIAN).putInt(4, StrategyTableFile.VERSION + 1);
+        Files.write(otherVersion, changed);
+        Assert.assertThrows(IOException.class, () -> StrategyTableFile.map(otherVersion));
+
+        Path notTable = directory.resolve("magic" + StrategyTableFile.EXTENSION);
+        changed = bytes.clone();
+        changed[0] ^= 1;
+        Files.write(notTable, changed);
+        Assert.assertThrows(IOException.class, () -> StrategyTableFile.map(notTable));
+
+        Path truncated = directory.resolve("truncated" + StrategyTableFile.EXTENSION);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 8));
+        Assert.assertThrows(IOException.class, () -> StrategyTableFile.map(truncated));
+    }
+}
@@ -0,0 +1,41 @@
+package unit_tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import utils.TranspositionTable;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void storesAndReplacesValues() {
+        TranspositionTable table = new TranspositionTable(1000);
+        Assert.assertEquals(1024, table.capacity());
+        Assert.assertTrue(Double.isNaN(table.get(42)));
+
+        table.put(42, 1.5);
+        table.put(-7L, 0.0);
+        Assert.assertEquals(1.5, table.get(42), 0.0);
+        Assert.assertEquals(0.0, table.get(-7L), 0.0);
+        table.put(42, 2.5);
+        Assert.assertEquals(2.5, table.get(42), 0.0);
+
+        table.clear();
+        Assert.assertTrue(Double.isNaN(table.get(42)));
+        Assert.assertTrue(Double.isNaN(table.get(0)));
+    }
+
+    @Test
+    public void collidingKeysMissInsteadOfMixingUp() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.put(1, 10.0);
+        table.put(2, 20.0); // Same slot, replaces key 1
+        Assert.assertTrue(Double.isNaN(table.get(1)));
+        Assert.assertEquals(20.0, table.get(2), 0.0);
+    }
+
+    @Test
+    public void rejectsBadArguments() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(1).put(0, 1.0));
+    }
+}
@@ -0,0 +1,81 @@
+package unit_tests;
+
+import model.records.dice.*;
+import org.junit.Assert;
+import org.junit.Test;
+import services.ScoringRules;
+import services.StrategySolver;
+import services.StrategyTable;
+import services.TurnDistributionService;
+import services.TurnHistogram;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TurnDistributionServiceTest {
+    private final TurnDistributionService service = TurnDistributionService.getInstance();
+
+    @Test
+    public void singleDieHasKnownDistribution() {
+        List<Dice> deck = List.of(new RegularDice(1));
+        StrategyTable table = new StrategySolver().solve(deck, ScoringRules.STANDARD, 100, fraction -> {});
+
+        // A one reaches the goal, a five banks since one more die is worth less than 50
+        TurnHistogram histogram = service.continueTurn(table, deck, 0);
+        Assert.assertEquals(3, histogram.size());
+        Assert.assertEquals(4.0 / 6, histogram.probability(0), 1e-12);
+        Assert.assertEquals(1.0 / 6, histogram.probability(1), 1e-12);
+        Assert.assertEquals(1.0 / 6, histogram.probability(2), 1e-12);
+        Assert.assertEquals(0.0, histogram.probability(3), 0.0);
+        Assert.assertEquals(2.0 / 6, histogram.atLeast(50), 1e-12);
+        Assert.assertEquals(5.0 / 6, histogram.below(100), 1e-12);
+    }
+
+    @Test
+    public void histogramsMatchSolvedValues() {
+        List<Dice> deck = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            deck.add(new RegularDice(1));
+        }
+        deck.add(new LuckyDice(1));
+        int goal = 2000;
+        StrategyTable table = new StrategySolver().solve(deck, ScoringRules.STANDARD, goal, fraction -> {});
+
+        for (int composition = 1; composition < table.compositions(); composition++) {
+            for (int turnScore = 0; turnScore < goal; turnScore += 250) {
+                TurnHistogram histogram = service.continueTurn(table, composition, turnScore);
+                double total = 0.0;
+                for (double p : histogram.toArray()) {
+                    Assert.assertTrue(p >= 0.0);
+                    total += p;
+                }
+                Assert.assertEquals(1.0, total, 1e-9);
+
+                // Standard scores are whole buckets, so the mean is exact
+                if (table.shouldRoll(composition, turnScore)) {
+                    Assert.assertEquals(table.value(composition, turnScore), histogram.mean(), 1e-6);
+                }
+                // A kept roll never banks less than was collected before it
+                Assert.assertEquals(histogram.probability(0), histogram.below(turnScore + 50), 1e-9);
+            }
+        }
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> service.continueTurn(table, List.of(new CursedDice(1)), 0));
+    }
+
+    @Test
+    public void memosDoNotPinTheirTables() throws Exception {
+        List<Dice> deck = List.of(new RegularDice(1), new LuckyDice(1));
+        StrategyTable table = new StrategySolver().solve(deck, ScoringRules.STANDARD, 300, fraction -> {});
+        service.continueTurn(table, deck, 0);
+
+        WeakReference<StrategyTable> dropped = new WeakReference<>(table);
+        table = null;
+        for (int i = 0; i < 50 && dropped.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(dropped.get());
+    }
+}
@@ -0,0 +1,83 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size cache from packed {@code long} search states to their {@code double} values,
+ * shared by every thread of a search.
+ *
+ * <p>Each slot holds one entry and a new entry simply replaces the old one, so the table never
+ * grows and a lookup is a single probe. Threads read and write without locking: a slot stores
+ * the key XOR-ed with the value bits next to the value bits, so an entry torn by a concurrent
+ * write no longer matches its key and reads as a miss instead of as a wrong value. Key 0 marks
+ * empty slots and is never stored.</p>
+ */
+public final class TranspositionTable {
+
+    private final long[] slots; // Per entry: key ^ value bits, then value bits
+    private final int mask;
+
+    /**
+     * Creates an empty table.
+     *
+     * @param capacity the number of entries, rounded up to a power of two
+     * @throws IllegalArgumentException if the capacity is not positive or too large
+     */
+    public TranspositionTable(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 29) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^29, was " + capacity);
+        }
+        int entries = Integer.highestOneBit(capacity * 2 - 1);
+        this.slots = new long[entries * 2];
+        this.mask = entries - 1;
+    }
+
+    // Spreads packed states, whose low bits vary least, over the table
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return ((int) (h ^ (h >>> 32)) & mask) << 1;
+    }
+
+    /**
+     * Returns the value stored for the key.
+     *
+     * @param key the key, not 0
+     * @return the value, or NaN on a miss
+     */
+    public double get(long key) {
+        int slot = slot(key);
+        long bits = slots[slot + 1];
+        if (key == 0L || (slots[slot] ^ bits) != key) {
+            return Double.NaN;
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Stores a value, replacing whatever shared its slot.
+     *
+     * @param key   the key, not 0
+     * @param value the value
+     * @throws IllegalArgumentException if the key is 0
+     */
+    public void put(long key, double value) {
+        if (key == 0L) {
+            throw new IllegalArgumentException("Key 0 marks empty slots");
+        }
+        int slot = slot(key);
+        long bits = Double.doubleToRawLongBits(value);
+        slots[slot] = key ^ bits;
+        slots[slot + 1] = bits;
+    }
+
+    /**
+     * Removes every entry. Not atomic with respect to concurrent writes.
+     */
+    public void clear() {
+        Arrays.fill(slots, 0L);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
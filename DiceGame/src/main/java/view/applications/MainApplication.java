@@ -10,6 +10,8 @@ import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 import javafx.util.Duration;
+import services.SearchExecutor;
+import services.StrategyService;
 
 /**
  * The main entry point for the Dice Game application.
@@ -45,6 +47,15 @@ public class MainApplication extends Application {
         primaryStage.show();
     }
 
+    /**
+     * Stops the computer players' search and solver workers when the application closes.
+     */
+    @Override
+    public void stop() {
+        SearchExecutor.getInstance().shutdown();
+        StrategyService.getInstance().shutdown();
+    }
+
     /**
      * Applies a fade-in transition when switching scenes.
      *